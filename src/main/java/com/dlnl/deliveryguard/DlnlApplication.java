@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 // @ComponentScan(basePackages = {"com.dlnl.deliveryguard.jwt", "com.dlnl.deliveryguard.config","com.dlnl.deliveryguard"})
 @EnableJpaAuditing
+@EnableScheduling
 public class DlnlApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package com.dlnl.deliveryguard.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+public class AddressUtil {
+
+    // 공백을 하나로 합치고 소문자로 바꿉니다. ("서울시  강남구 " → "서울시 강남구")
+    public static String normalize(String address) {
+        return address == null ? null : address.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // 고객별 주소 매칭용 지문 (정규화한 주소의 SHA-256, 64자리 hex)
+    public static String fingerprint(String address) {
+        String normalized = normalize(address);
+        if (normalized == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 알고리즘을 사용할 수 없습니다.", e);
+        }
+    }
+}
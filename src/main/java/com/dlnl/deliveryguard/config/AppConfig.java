@@ -1,14 +1,10 @@
 package com.dlnl.deliveryguard.config;
 
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
+// 배달 대행사 HTTP 클라이언트는 대행사별로 DeliveryAgencyClient 가 만듭니다. (DeliveryAgencyProperties)
 @Configuration
+@EnableConfigurationProperties(DeliveryAgencyProperties.class)
 public class AppConfig {
-
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
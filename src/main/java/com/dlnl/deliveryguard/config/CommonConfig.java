@@ -1,13 +1,23 @@
 package com.dlnl.deliveryguard.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
 @Configuration
 public class CommonConfig {
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // BCrypt 해싱은 전용 스레드 풀에서 실행합니다. (기본 스레드 수: 코어 수의 절반)
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                  @Value("${auth.password-hash.threads:0}") int threads,
+                                                  @Value("${auth.password-hash.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${auth.password-hash.max-wait-millis:3000}") long maxWaitMillis) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, Duration.ofMillis(maxWaitMillis), meterRegistry);
     }
 }
@@ -0,0 +1,64 @@
+package com.dlnl.deliveryguard.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 배달 대행사별 연동 설정 (delivery.agencies.{대행사 코드}.*).
+ * 대행사마다 커넥션 풀 / 타임아웃 / 호출 스레드 / 호출 한도를 따로 둡니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "delivery")
+public class DeliveryAgencyProperties {
+
+    private Map<String, Agency> agencies = new HashMap<>();
+
+    // 대행사 코드는 대소문자 구분 없이 찾습니다.
+    public Agency getAgency(String code) {
+        return agencies.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(code))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("배달 대행사 설정이 없습니다: delivery.agencies." + code.toLowerCase()));
+    }
+
+    @Getter
+    @Setter
+    public static class Agency {
+        private String baseUrl;
+        private String apiKey;
+        private String apiSecret;
+
+        private int maxConnections = 32;                       // 커넥션 풀 크기 (대행사 API 는 route 하나)
+        private long connectTimeoutMillis = 2000;
+        private long connectionRequestTimeoutMillis = 1000;    // 풀에서 연결을 기다리는 최대 시간
+        private long responseTimeoutMillis = 5000;
+        private long connectionTtlSeconds = 300;
+        private long idleEvictSeconds = 30;
+
+        private int asyncThreads = 16;                         // 대행사 호출 스레드 수
+        private int asyncQueueCapacity = 500;
+
+        private double rateLimitPerSecond = 20;                // 초당 호출 한도
+        private int rateLimitBurst = 40;
+        private long rateLimitWaitMillis = 1000;               // 호출 한도를 기다리는 최대 시간
+
+        private int maxConcurrentCalls = 32;                   // 대기 중 + 실행 중 호출 수 한도 (bulkhead)
+
+        // 배달 상태 추적(폴링) 전용 한도. 대화형 호출과 따로 두며, 두 호출 한도의 합이 대행사가 허용하는 한도 안이어야 합니다.
+        private int pollMaxConcurrentCalls = 8;                // 폴링 동시 호출 수 (폴링 스레드 수)
+        private double pollRateLimitPerSecond = 10;
+        private int pollRateLimitBurst = 10;
+
+        private int circuitWindowSize = 20;                    // 실패율을 계산할 최근 호출 수
+        private int circuitMinimumCalls = 10;
+        private double circuitFailureRateThreshold = 0.5;
+        private long circuitOpenSeconds = 30;                  // OPEN 유지 시간 (이후 HALF_OPEN 시험 호출)
+        private int circuitHalfOpenProbes = 3;
+    }
+}
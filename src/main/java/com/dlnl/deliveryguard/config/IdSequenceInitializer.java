@@ -0,0 +1,39 @@
+package com.dlnl.deliveryguard.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 주문 / 주문 메뉴 ID를 IDENTITY 에서 시퀀스(MySQL 에서는 시퀀스 테이블)로 바꾸면서,
+ * 기존 데이터의 최대 ID보다 시퀀스 값이 작으면 그 이후로 맞춰 ID 충돌을 막습니다.
+ * hbm2ddl 이 시퀀스 테이블을 만든 뒤에 실행되도록 entityManagerFactory 이후에 초기화합니다.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    private static final int ALLOCATION_SIZE = 50;  // 엔티티 @SequenceGenerator 의 allocationSize 이상이어야 합니다.
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        align("orders_seq", "orders");
+        align("order_menus_seq", "order_menus");
+    }
+
+    private void align(String sequenceTable, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        long nextValue = (maxId != null ? maxId : 0L) + ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update("update " + sequenceTable + " set next_val = ? where next_val < ?", nextValue, nextValue);
+        if (updated > 0) {
+            log.info("{} 시퀀스를 {} 로 맞췄습니다. ({} 최대 ID: {})", sequenceTable, nextValue, table, maxId);
+        }
+    }
+}
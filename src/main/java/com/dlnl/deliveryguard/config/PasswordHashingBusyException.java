@@ -0,0 +1,9 @@
+package com.dlnl.deliveryguard.config;
+
+// 비밀번호 해싱 스레드 풀이 가득 차서 처리하지 못한 경우 (503)
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("요청이 많아 잠시 후 다시 시도해 주세요.");
+    }
+}
@@ -0,0 +1,17 @@
+package com.dlnl.deliveryguard.config;
+
+public class PaymentAmountUtil {
+
+    // 금액 범위 검색용 숫자 결제 금액. 숫자만 남겨 읽고, 숫자가 없거나 범위를 넘으면 null ("15,000원" → 15000)
+    public static Integer parse(String paymentAmount) {
+        if (paymentAmount == null) {
+            return null;
+        }
+        String digits = paymentAmount.replaceAll("[^0-9]", "");
+        try {
+            return digits.isEmpty() ? null : Integer.valueOf(digits);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
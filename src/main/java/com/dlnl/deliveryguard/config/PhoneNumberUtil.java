@@ -0,0 +1,15 @@
+package com.dlnl.deliveryguard.config;
+
+public class PhoneNumberUtil {
+
+    // 숫자만 남깁니다. ("010-1234-5678" → "01012345678")
+    public static String normalize(String phoneNumber) {
+        return phoneNumber == null ? "" : phoneNumber.replaceAll("[^0-9]", "");
+    }
+
+    // 뒷자리 검색을 인덱스 prefix 검색으로 바꾸기 위해 숫자만 남긴 번호를 뒤집어 저장합니다. ("010-1234-5678" → "87654321010")
+    public static String reversed(String phoneNumber) {
+        String digits = normalize(phoneNumber);
+        return digits.isEmpty() ? null : new StringBuilder(digits).reverse().toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.dlnl.deliveryguard.config;
+
+import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
+import com.dlnl.deliveryguard.service.RefreshTokenService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * refresh 토큰을 user.refresh_token 컬럼에서 기기별 refresh_token 테이블로 옮기면서, 배포 전에 발급된 세션이 끊기지 않도록
+ * 아직 만료되지 않은 기존 토큰을 해시로 옮기고(기기 ID 는 기본값) 원래 컬럼은 비웁니다. 옮길 토큰이 없으면 아무것도 하지 않습니다.
+ * hbm2ddl 이 refresh_token 테이블을 만든 뒤에 실행되도록 entityManagerFactory 이후에 초기화합니다.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenMigrator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtUtil jwtUtil;
+
+    @PostConstruct
+    public void migrate() {
+        Integer legacyColumns = jdbcTemplate.queryForObject("select count(*) from information_schema.columns " +
+                "where table_schema = database() and table_name = 'user' and column_name = 'refresh_token'", Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        List<Map<String, Object>> legacyTokens = jdbcTemplate.queryForList("select id, refresh_token from `user` where refresh_token is not null");
+        int migrated = 0;
+        for (Map<String, Object> row : legacyTokens) {
+            Long userId = ((Number) row.get("id")).longValue();
+            String refreshToken = (String) row.get("refresh_token");
+            if (copy(userId, refreshToken)) {
+                migrated++;
+            }
+            jdbcTemplate.update("update `user` set refresh_token = null where id = ? and refresh_token = ?", userId, refreshToken);
+        }
+        if (!legacyTokens.isEmpty()) {
+            log.info("user.refresh_token 의 refresh 토큰 {}건 중 {}건을 refresh_token 테이블로 옮겼습니다. (만료 / 유효하지 않은 토큰은 제외)",
+                    legacyTokens.size(), migrated);
+        }
+    }
+
+    // 유효한 refresh 토큰이면 해시로 저장합니다. (이미 옮긴 토큰은 unique 인덱스로 무시)
+    private boolean copy(Long userId, String refreshToken) {
+        VerifiedToken token;
+        try {
+            token = jwtUtil.parseAndVerify(refreshToken);
+        } catch (AuthenticationException e) {
+            return false;
+        }
+        if (!token.isRefreshToken() || !userId.equals(token.getUserId())) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(token.getExpiresAt(), ZoneId.systemDefault());
+        return jdbcTemplate.update("insert ignore into refresh_token (token_hash, user_id, device_id, expires_at, created_at) values (?, ?, ?, ?, ?)",
+                JwtUtil.tokenHash(refreshToken), userId, RefreshTokenService.DEFAULT_DEVICE_ID, Timestamp.valueOf(expiresAt), Timestamp.valueOf(now)) > 0;
+    }
+}
@@ -0,0 +1,83 @@
+package com.dlnl.deliveryguard.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 검색용 파생 컬럼(엔티티의 @PrePersist / @PreUpdate 에서 원본 컬럼으로부터 동기화)은 컬럼을 추가하기 전에 저장된 행에서 비어 있으므로,
+ * 기동할 때 원본 값이 있고 파생 컬럼이 비어 있는 행을 엔티티와 같은 변환으로 채웁니다. 채울 행이 없으면 조회 한 번으로 끝납니다.
+ * 파생 컬럼이 비어 있을 때만 쓰므로 여러 노드가 동시에 실행해도 안전합니다.
+ * hbm2ddl 이 파생 컬럼을 만든 뒤에 실행되도록 entityManagerFactory 이후에 초기화합니다.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchColumnBackfill {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        backfill("orders", "payment_amount", "payment_amount_value", PaymentAmountUtil::parse);
+        backfill("customer", "phone_number", "phone_number_reversed", PhoneNumberUtil::reversed);  // 전화번호 뒷자리 검색
+        backfill("orders", "customer_phone_number", "customer_phone_number_reversed", PhoneNumberUtil::reversed);
+        backfill("addresses", "dest_address", "address_fingerprint", AddressUtil::fingerprint);  // 고객별 주소 매칭 (유니크)
+    }
+
+    // id 순서로 BATCH_SIZE 건씩 읽어 채웁니다. 변환 결과가 null 인 행(숫자가 없는 금액 / 전화번호 등)은 그대로 둡니다.
+    private void backfill(String table, String sourceColumn, String derivedColumn, Function<String, Object> derive) {
+        String selectSql = "select id, " + sourceColumn + " from " + table +
+                " where " + derivedColumn + " is null and " + sourceColumn + " is not null and id > ? order by id limit " + BATCH_SIZE;
+        String updateSql = "update " + table + " set " + derivedColumn + " = ? where id = ? and " + derivedColumn + " is null";
+
+        long lastId = 0;
+        int filled = 0;
+        int skipped = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList(selectSql, lastId);
+            List<Object[]> updates = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                Object value = derive.apply((String) row.get(sourceColumn));
+                if (value != null) {
+                    updates.add(new Object[]{value, lastId});
+                }
+            }
+            if (updates.isEmpty()) {
+                continue;
+            }
+            try {
+                jdbcTemplate.batchUpdate(updateSql, updates);
+                filled += updates.size();
+            } catch (DuplicateKeyException e) {
+                // 한 고객에 정규화하면 같은 주소가 이미 여러 행 있으면 한 건씩 다시 채우고, 먼저 채운 행과 충돌하는 행은 비워 둡니다.
+                // (주소 매칭은 먼저 채운 행으로 되고, 비워 둔 행은 중복을 합친 뒤 다음 기동 때 채워집니다.)
+                for (Object[] update : updates) {
+                    try {
+                        filled += jdbcTemplate.update(updateSql, update);
+                    } catch (DuplicateKeyException duplicate) {
+                        skipped++;
+                    }
+                }
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        if (filled > 0 || skipped > 0) {
+            log.info("{}.{} 를 {}건 채웠습니다. (유니크 키 중복으로 건너뜀: {}건)", table, derivedColumn, filled, skipped);
+        }
+    }
+}
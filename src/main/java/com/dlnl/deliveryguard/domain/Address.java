@@ -1,5 +1,6 @@
 package com.dlnl.deliveryguard.domain;
 
+import com.dlnl.deliveryguard.config.AddressUtil;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -15,7 +16,9 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "addresses")
+@Table(name = "addresses", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_addresses_customer_fingerprint", columnNames = {"customer_id", "address_fingerprint"})  // 고객별 주소 매칭
+})
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class Address {
@@ -26,6 +29,9 @@ public class Address {
     @Column(name = "dest_address")
     private String destAddress;
 
+    @Column(name = "address_fingerprint", length = 64)
+    private String fingerprint;    // 정규화한 destAddress 의 SHA-256 (destAddress 에서 동기화)
+
     @Column(name = "dest_address_detail")
     private String destAddressDetail;
 
@@ -47,4 +53,10 @@ public class Address {
     @Builder.Default
     @OneToMany(mappedBy = "address", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Order> orders = new ArrayList<>(); // 한 주소는 여러 주문과 연결될 수 있음
+
+    @PrePersist
+    @PreUpdate
+    private void syncFingerprint() {
+        this.fingerprint = AddressUtil.fingerprint(destAddress);
+    }
 }
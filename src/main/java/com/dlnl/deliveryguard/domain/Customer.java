@@ -1,5 +1,6 @@
 package com.dlnl.deliveryguard.domain;
 
+import com.dlnl.deliveryguard.config.PhoneNumberUtil;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -15,7 +16,9 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "customer")
+@Table(name = "customer", indexes = {
+        @Index(name = "idx_customer_store_phone_number_reversed", columnList = "store_id, phone_number_reversed")  // 전화번호 뒷자리 검색
+})
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class Customer {
@@ -31,6 +34,8 @@ public class Customer {
 
     @Column(name = "phone_number")
     private String phoneNumber;
+    @Column(name = "phone_number_reversed")
+    private String phoneNumberReversed;    // 뒷자리 검색용 (숫자만 남겨 뒤집은 번호, phoneNumber 에서 동기화)
     @Builder.Default
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Address> addresses = new ArrayList<>();
@@ -40,7 +45,14 @@ public class Customer {
     @JsonIgnoreProperties({"customers"})
     private Store store;
 
+    @PrePersist
+    @PreUpdate
+    private void syncPhoneNumberReversed() {
+        this.phoneNumberReversed = PhoneNumberUtil.reversed(phoneNumber);
+    }
+
     public void updatePhoneNumber(String newPhoneNumber) {
         this.phoneNumber = newPhoneNumber;
+        this.phoneNumberReversed = PhoneNumberUtil.reversed(newPhoneNumber);
     }
 }
@@ -0,0 +1,38 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 배달 상태 추적 shard 의 임대 정보. 주문은 id % shard 수 로 shard 에 속하고, 임대한 노드만 해당 shard 의 배달을 조회합니다.
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "delivery_poll_leases")
+@Entity
+public class DeliveryPollLease {
+    @Id
+    @Column(name = "shard_no")
+    private Integer shardNo;
+
+    @Column(name = "owner")
+    private String owner;               // 임대한 노드 ID
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;   // 이 시각까지 갱신이 없으면 다른 노드가 가져갈 수 있음
+
+    public void acquire(String owner, LocalDateTime leaseUntil) {
+        this.owner = owner;
+        this.leaseUntil = leaseUntil;
+    }
+
+    public void release() {
+        this.owner = null;
+        this.leaseUntil = null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 배달 상태 추적에 참여 중인 노드 (heartbeat 로 살아있는 노드 수를 세어 shard 를 나눕니다)
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "delivery_poll_nodes")
+@Entity
+public class DeliveryPollNode {
+    @Id
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,71 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 보낼 메일. 요청 트랜잭션 안에서 저장하고, MailOutboxDispatcher 가 따로 발송합니다. 발송에 성공한 행은 삭제합니다.
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_status_next_attempt_at", columnList = "status, next_attempt_at")  // 발송 대상 조회
+})
+@Entity
+public class MailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "html_body")
+    private String htmlBody;            // MailBodyCipher 로 암호화한 본문. 임시 비밀번호가 들어 있을 수 있으므로 발송을 포기하면 비웁니다.
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;  // 이 시각 이후에 발송 (발송 중에는 임대 만료 시각)
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        PENDING, FAILED
+    }
+
+    // 발송을 시작하면서 시도 횟수를 올리고, 임대 시간 동안 다른 노드가 가져가지 않도록 합니다.
+    public void claim(LocalDateTime leaseUntil) {
+        this.attempts++;
+        this.nextAttemptAt = leaseUntil;
+    }
+
+    public void retryAt(LocalDateTime nextAttemptAt, String error) {
+        this.nextAttemptAt = nextAttemptAt;
+        this.lastError = error;
+    }
+
+    public void fail(String error) {
+        this.status = Status.FAILED;
+        this.htmlBody = null;
+        this.lastError = error;
+    }
+}
@@ -17,7 +17,7 @@ import java.util.List;
 @NoArgsConstructor
 @Table(name = "menu")
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, MenuChangeListener.class})
 public class Menu {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,21 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Menu 엔티티 변경을 MenuChangedEvent 로 알립니다. (Hibernate 가 Spring 빈 컨테이너를 통해 생성하므로 주입 가능)
+@RequiredArgsConstructor
+public class MenuChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Menu menu) {
+        eventPublisher.publishEvent(new MenuChangedEvent(menu.getId()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.dlnl.deliveryguard.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 메뉴가 추가 / 수정 / 삭제되었을 때 발행되는 이벤트 (메뉴 캐시 무효화용)
+@Getter
+@AllArgsConstructor
+public class MenuChangedEvent {
+    private final Long menuId;
+}
@@ -1,5 +1,7 @@
 package com.dlnl.deliveryguard.domain;
 
+import com.dlnl.deliveryguard.config.PaymentAmountUtil;
+import com.dlnl.deliveryguard.config.PhoneNumberUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,12 +18,19 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_store_order_date_time", columnList = "store_id, order_date_time"),  // 주문 검색 keyset 페이지네이션, 기간 검색
+        @Index(name = "idx_orders_store_status_order_date_time", columnList = "store_id, status, order_date_time"),  // 상태별 기간 검색
+        @Index(name = "idx_orders_store_customer_phone_number_reversed", columnList = "store_id, customer_phone_number_reversed"),  // 전화번호 뒷자리 검색
+        @Index(name = "idx_orders_status", columnList = "status"),  // 배달 상태 추적 대상 조회
+        @Index(name = "idx_orders_delivery_id", columnList = "delivery_id")  // 대행사 webhook 수신
+})
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)  // 대량 등록 시 JDBC batch insert 를 위해 IDENTITY 대신 사용
     private Long id;
     @Column(name = "order_date_time")
     private LocalDateTime orderDateTime;
@@ -30,6 +39,8 @@ public class Order {
     private List<OrderMenu> orderMenus = new ArrayList<>();
     @Column(name = "customer_phone_number")
     private String CustomerPhoneNumber;
+    @Column(name = "customer_phone_number_reversed")
+    private String customerPhoneNumberReversed;    // 뒷자리 검색용 (숫자만 남겨 뒤집은 번호, CustomerPhoneNumber 에서 동기화)
     @Column(name = "order_platform")
     private String orderPlatform;
     @Column(name = "order_number")
@@ -44,6 +55,8 @@ public class Order {
     private Status status;
     @Column(name = "payment_amount")
     private String paymentAmount;
+    @Column(name = "payment_amount_value")
+    private Integer paymentAmountValue;    // 금액 범위 검색용 숫자 결제 금액 (paymentAmount 에서 동기화)
     @Column(name = "estimated_cooking_time")
     private Time estimatedCookingTime;
     @Column(name = "delivery_agency", nullable = true)
@@ -53,6 +66,8 @@ public class Order {
 
     @Column (name = "delivery_id", nullable = true)
     private String deliveryId;
+    @Column(name = "delivery_pushed_at", nullable = true)
+    private LocalDateTime deliveryPushedAt;    // 대행사 webhook 으로 배달 상태를 마지막으로 받은 시각
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id") // 고객과의 관계
     private Customer customer; // 주문을 한 고객
@@ -76,6 +91,21 @@ public class Order {
     @Column(name = "contactless")
     private boolean contactless;    // 비대면 배송 여부
 
+    @PrePersist
+    @PreUpdate
+    private void syncSearchColumns() {
+        this.customerPhoneNumberReversed = PhoneNumberUtil.reversed(CustomerPhoneNumber);
+        this.paymentAmountValue = PaymentAmountUtil.parse(paymentAmount);  // "15,000원" 같은 입력도 허용
+    }
+
+    public void addOrderMenu(Menu menu, Integer quantity) {
+        this.orderMenus.add(OrderMenu.builder()
+                .order(this)
+                .menu(menu)
+                .quantity(quantity)
+                .build());
+    }
+
     public void updateStatus(Status canceled) {
         this.status = canceled;
     }
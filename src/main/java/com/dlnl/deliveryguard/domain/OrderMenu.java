@@ -8,17 +8,20 @@ import lombok.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "order_menus")
+@Table(name = "order_menus", indexes = {
+        @Index(name = "idx_order_menus_menu_order", columnList = "menu_id, order_id")  // 메뉴명 검색 (menu_id IN → order_id)
+})
 public class OrderMenu {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_menus_seq")
+    @SequenceGenerator(name = "order_menus_seq", sequenceName = "order_menus_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "menu_id")
     private Menu menu;
 
@@ -0,0 +1,44 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 발급한 refresh 토큰. 토큰 원문 대신 SHA-256 해시만 저장하고, 기기(POS 단말)마다 하나씩 유지합니다.
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "uk_refresh_token_token_hash", columnList = "token_hash", unique = true),  // 재발급 시 토큰 조회 / 교체
+        @Index(name = "idx_refresh_token_user_device", columnList = "user_id, device_id"),  // 기기별 / 사용자별 폐기
+        @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")  // 만료 토큰 정리
+})
+@Entity
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 44)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "device_id", nullable = false, length = 64)
+    private String deviceId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;    // 교체 / 로그아웃으로 폐기된 시각 (null 이면 사용 가능)
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -18,6 +18,7 @@ import java.util.List;
 @NoArgsConstructor
 @Table(name = "store")
 @Entity
+@EntityListeners(UserChangeListener.class)
 public class Store {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,7 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @Table(name = "user")
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserChangeListener.class})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,9 +39,6 @@ public class User {
     @Column(name = "email")
     private String email;
 
-    @Column(name = "refresh_token")
-    private String refreshToken;
-
     @Column(name = "created_at",nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
@@ -58,10 +55,6 @@ public class User {
     @JoinColumn(name = "store_id")
     @JsonBackReference  // 순환 참조 방지를 위해 직렬화에서 제외되는 쪽
     private Store store;
-    public void updateRefreshToken(String refreshToken) {
-        this.refreshToken = refreshToken;
-    }
-
     public void updateUpdatedAt(LocalDateTime now){
         this.updatedAt = now;
     }
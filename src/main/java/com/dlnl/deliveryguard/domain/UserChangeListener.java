@@ -0,0 +1,24 @@
+package com.dlnl.deliveryguard.domain;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+// User / Store 엔티티 변경을 UserChangedEvent 로 알립니다. (Hibernate 가 Spring 빈 컨테이너를 통해 생성하므로 주입 가능)
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getStore() != null ? user.getStore().getId() : null));
+        } else if (entity instanceof Store) {
+            eventPublisher.publishEvent(new UserChangedEvent(null, ((Store) entity).getId()));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.dlnl.deliveryguard.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 사용자 또는 가게 정보가 수정 / 삭제되었을 때 발행되는 이벤트 (사용자 스냅샷 캐시 무효화용)
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;    // 가게가 바뀐 경우 null
+    private final Long storeId;   // 가게가 없는 사용자면 null
+}
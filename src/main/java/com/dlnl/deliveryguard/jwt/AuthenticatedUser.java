@@ -0,0 +1,66 @@
+package com.dlnl.deliveryguard.jwt;
+
+import com.dlnl.deliveryguard.domain.Role;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// 인증된 사용자 principal. 토큰 클레임(사용자 ID, 로그인 ID, 가게 ID, 권한)만으로 만들어 요청마다 사용자를 조회하지 않습니다.
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String loginId;
+    private final Long storeId;   // 가게가 없는 사용자는 null
+    private final Role role;
+
+    public static AuthenticatedUser of(VerifiedToken token) {
+        return new AuthenticatedUser(token.getUserId(), token.getLoginId(), token.getStoreId(), Role.valueOf(token.getRole()));
+    }
+
+    public static AuthenticatedUser of(UserSnapshot user) {
+        return new AuthenticatedUser(user.getId(), user.getLoginId(), user.getStoreId(), user.getRole());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;  // 토큰 인증이므로 비밀번호를 들고 있지 않습니다.
+    }
+
+    @Override
+    public String getUsername() {
+        return loginId;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -35,31 +35,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        Long userId = null;
-        String jwt = null;
+        // Bearer 토큰이 있고 현재 인증 정보가 없는 경우
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            userId = jwtUtil.getIdFromToken(jwt);
-        }
-
-        // 유저 ID가 있고 현재 인증 정보가 없는 경우
-        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // 토큰을 한 번만 파싱해 서명 / 만료를 확인합니다. (유효하지 않으면 BadCredentialsException)
+            VerifiedToken token = jwtUtil.parseAndVerify(authorizationHeader.substring(7));
 
-            // JWT 토큰이 유효한 경우
-            if (jwtUtil.validateToken(jwt)) {
-                // UserDetails를 이용해 사용자 정보 가져오기
-                UserDetails userDetails = userService.loadUserById(userId);
+            // 토큰 클레임으로 principal 을 만들고, 클레임이 없거나 발급 이후 사용자 정보가 바뀌었으면 사용자 스냅샷에서 만듭니다.
+            UserDetails userDetails = userService.loadPrincipal(token);
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            usernamePasswordAuthenticationToken
+                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // 인증 정보 설정
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+            // 인증 정보 설정
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
         chain.doFilter(request, response);
     }
@@ -1,6 +1,11 @@
 package com.dlnl.deliveryguard.jwt;
 
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import jakarta.annotation.PostConstruct;
@@ -10,8 +15,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 @Slf4j
@@ -28,63 +39,142 @@ public class JwtUtil {
     private long refreshExpiration;
 
 
+    @Value("${spring.jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    @Value("${spring.jwt.verified-cache-ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
     private String encodedSecretKey;
 
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void init() {
         this.encodedSecretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry(Duration.ofSeconds(verifiedCacheTtlSeconds)))
+                .build();
     }
 
-    public String generateAccessToken(Long id) {
+    // 사용자 ID 외에 로그인 ID / 가게 ID / 권한을 담아, 요청마다 사용자를 조회하지 않고 principal 을 만듭니다.
+    public String generateAccessToken(UserSnapshot user) {
         return Jwts.builder()
                 .claim("tokenType", "access")
-                .claim("id", id)
+                .claim("id", user.getId())
+                .claim("loginId", user.getLoginId())
+                .claim("storeId", user.getStoreId())
+                .claim("role", user.getRole() != null ? user.getRole().name() : null)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + accessExpiration))
                 .signWith(SignatureAlgorithm.HS512, encodedSecretKey)
                 .compact();
     }
 
-    public String generateRefreshToken(Long id) {
+    // jti 로 같은 시각에 발급한 토큰도 서로 다른 값이 되도록 하고, 기기 ID 를 담아 재발급 시 같은 기기로 교체합니다.
+    public String generateRefreshToken(Long id, String deviceId) {
         long expirationTime = System.currentTimeMillis() + refreshExpiration;
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .claim("id", id)
                 .claim("tokenType", "refresh")
+                .claim("deviceId", deviceId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(expirationTime))
                 .signWith(SignatureAlgorithm.HS512, encodedSecretKey)
                 .compact();
     }
     public boolean validateToken(String token) {
-        if(!isTokenExpired(token)){
-            Jwts.parser().setSigningKey(encodedSecretKey).parseClaimsJws(token);
+        parseAndVerify(token);
+        return true;
+    }
+
+    public boolean validateRefreshToken(String token) {
+        if (parseAndVerify(token).isRefreshToken()) {
             return true;
-        }else {
+        }
+        throw new BadCredentialsException("유효하지 않은 토큰입니다.");
+    }
+
+    public long getRefreshExpirationMillis() {
+        return refreshExpiration;
+    }
+
+    public Long getIdFromToken(String token) {
+        return parseAndVerify(token).getUserId();
+    }
+
+    /**
+     * 토큰을 한 번만 파싱해 서명과 만료 시각을 확인하고 클레임을 돌려줍니다. 유효하지 않으면 BadCredentialsException.
+     * 확인한 토큰은 토큰 해시를 키로 만료 시각까지(최대 verified-cache-ttl) 캐싱해, 같은 토큰의 다음 요청에서는 서명을 다시 확인하지 않습니다.
+     */
+    public VerifiedToken parseAndVerify(String token) {
+        if (token == null || token.isEmpty()) {
             throw new BadCredentialsException("유효하지 않은 토큰입니다.");
         }
+        String key = tokenHash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpiredAt(Instant.now())) {
+            return cached;
+        }
+
+        VerifiedToken verified = verify(token);
+        verifiedTokens.put(key, verified);
+        return verified;
     }
-    public boolean validateRefreshToken(String token) {
-        if (!isTokenExpired(token)) {
-            Claims claims = Jwts.parser().setSigningKey(encodedSecretKey).parseClaimsJws(token).getBody();
-            String tokenType = claims.get("tokenType", String.class);
-            if ("refresh".equals(tokenType)) {
-                return true;
-            } else {
+
+    private VerifiedToken verify(String token) {
+        try {
+            Claims claims = Jwts.parser().setSigningKey(encodedSecretKey).parseClaimsJws(token).getBody();  // 서명 / 만료 확인
+            Date issuedAt = claims.getIssuedAt();
+            Date expiration = claims.getExpiration();
+            Long userId = claims.get("id", Long.class);
+            if (expiration == null || userId == null) {
                 throw new BadCredentialsException("유효하지 않은 토큰입니다.");
             }
-        } else {
-            throw new BadCredentialsException("유효하지 않은 토큰입니다.");
+            return new VerifiedToken(userId, claims.get("tokenType", String.class),
+                    claims.get("loginId", String.class), claims.get("storeId", Long.class), claims.get("role", String.class),
+                    claims.get("deviceId", String.class),
+                    issuedAt != null ? issuedAt.toInstant() : null, expiration.toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("유효하지 않은 토큰입니다.", e);
         }
     }
-    private Boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
-    }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(encodedSecretKey).parseClaimsJws(token).getBody();
+    // 토큰 원문 대신 쓰는 SHA-256 해시 (검증 캐시 키, refresh 토큰 저장용)
+    public static String tokenHash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-    public Long getIdFromToken(String token) {
-        Claims claims = Jwts.parser().setSigningKey(encodedSecretKey).parseClaimsJws(token).getBody();
-        return claims.get("id", Long.class);
+
+    // 캐시 항목은 토큰 만료 시각에 함께 만료됩니다.
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maxTtlNanos;
+
+        UntilTokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), token.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.dlnl.deliveryguard.jwt;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// 서명과 만료 시각을 확인한 토큰의 클레임 (변경 불가)
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+
+    private final Long userId;
+    private final String tokenType;   // access, refresh
+    private final String loginId;     // access 토큰만 (이전에 발급된 토큰은 null)
+    private final Long storeId;
+    private final String role;
+    private final String deviceId;    // refresh 토큰만
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public boolean isAccessToken() {
+        return "access".equals(tokenType);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(tokenType);
+    }
+
+    // principal 을 만들 수 있는 클레임(로그인 ID, 권한)이 있으면 true
+    public boolean hasPrincipalClaims() {
+        return loginId != null && role != null;
+    }
+
+    public boolean isExpiredAt(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
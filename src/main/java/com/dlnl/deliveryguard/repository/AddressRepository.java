@@ -4,6 +4,11 @@ import com.dlnl.deliveryguard.domain.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
+    // (customer_id, address_fingerprint) 유니크 인덱스로 조회
+    List<Address> findByCustomerIdInAndFingerprintIn(Collection<Long> customerIds, Collection<String> fingerprints);
 }
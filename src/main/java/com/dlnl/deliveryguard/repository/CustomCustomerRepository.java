@@ -3,8 +3,12 @@ package com.dlnl.deliveryguard.repository;
 import com.dlnl.deliveryguard.domain.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface CustomCustomerRepository {
     Page<Customer> searchCustomersByStore(Long storeId, String nickname, String phoneNumber, String address, Pageable pageable);
+
+    // 전체 건수(count 쿼리) 없이 다음 페이지 존재 여부만 판단하는 검색
+    Slice<Customer> searchCustomersSliceByStore(Long storeId, String nickname, String phoneNumber, String address, Pageable pageable);
 }
 
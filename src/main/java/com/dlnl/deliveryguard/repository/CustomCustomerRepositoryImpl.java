@@ -1,55 +1,84 @@
 package com.dlnl.deliveryguard.repository;
+import com.dlnl.deliveryguard.config.PhoneNumberUtil;
 import com.dlnl.deliveryguard.domain.*;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 
+import java.util.Arrays;
 import java.util.List;
 @Repository
 public class CustomCustomerRepositoryImpl implements CustomCustomerRepository {
 
+    private static final String COUNT_SCOPE = "customers";
+
     private final JPAQueryFactory queryFactory;
 
-    public CustomCustomerRepositoryImpl(EntityManager em) {
+    private final SearchCountCache searchCountCache;
+
+    public CustomCustomerRepositoryImpl(EntityManager em, SearchCountCache searchCountCache) {
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchCountCache = searchCountCache;
     }
     @Override
     public Page<Customer> searchCustomersByStore(Long storeId, String nickname, String phoneNumber, String address, Pageable pageable) {
         QCustomer customer = QCustomer.customer;
-        QAddress customerAddress = QAddress.address;
+        Predicate[] conditions = searchConditions(storeId, nickname, phoneNumber, address);
 
         List<Customer> customers = queryFactory
                 .selectFrom(customer)
-                .leftJoin(customer.addresses, customerAddress)
-                .where(
-                        customer.store.id.eq(storeId),  // 사장님의 가게에 속한 고객만 조회
-                        nicknameContains(nickname),
-                        phoneNumberContains(phoneNumber),
-                        addressContains(address)
-                )
+                .where(conditions)
+                .orderBy(customer.id.asc())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        long total = queryFactory
+        // 마지막 페이지가 확실하면 count 쿼리를 생략하고, 필요한 경우에도 가게별 캐시를 먼저 확인합니다.
+        List<String> filter = Arrays.asList(nickname, phoneNumber, address);
+        return PageableExecutionUtils.getPage(customers, pageable, () -> searchCountCache.get(COUNT_SCOPE, storeId, filter, () -> {
+            Long total = queryFactory
+                    .select(customer.count())
+                    .from(customer)
+                    .where(conditions)
+                    .fetchOne();
+            return total != null ? total : 0L;
+        }));
+    }
+
+    @Override
+    public Slice<Customer> searchCustomersSliceByStore(Long storeId, String nickname, String phoneNumber, String address, Pageable pageable) {
+        QCustomer customer = QCustomer.customer;
+
+        // size + 1건을 읽어 다음 페이지 존재 여부를 판단합니다. (count 쿼리 없음)
+        List<Customer> customers = queryFactory
                 .selectFrom(customer)
-                .leftJoin(customer.addresses, customerAddress)
-                .where(
-                        customer.store.id.eq(storeId),
-                        nicknameContains(nickname),
-                        phoneNumberContains(phoneNumber),
-                        addressContains(address)
-                )
-                .fetchCount();
+                .where(searchConditions(storeId, nickname, phoneNumber, address))
+                .orderBy(customer.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
 
-        return new PageImpl<>(customers, pageable, total);
+        boolean hasNext = customers.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? customers.subList(0, pageable.getPageSize()) : customers, pageable, hasNext);
+    }
+
+    private Predicate[] searchConditions(Long storeId, String nickname, String phoneNumber, String address) {
+        return new Predicate[]{
+                QCustomer.customer.store.id.eq(storeId),  // 사장님의 가게에 속한 고객만 조회
+                nicknameContains(nickname),
+                phoneNumberContains(phoneNumber),
+                addressContains(address)
+        };
     }
 
     // 검색 조건 헬퍼 메서드는 그대로 유지
@@ -57,11 +86,25 @@ public class CustomCustomerRepositoryImpl implements CustomCustomerRepository {
         return StringUtils.hasText(nickname) ? QCustomer.customer.nickname.containsIgnoreCase(nickname) : null;
     }
 
+    // 전화번호 뒷자리 검색: 뒤집은 번호 컬럼의 prefix 검색으로 (store_id, phone_number_reversed) 인덱스를 탑니다.
     private BooleanExpression phoneNumberContains(String phoneNumber) {
-        return StringUtils.hasText(phoneNumber) ? QCustomer.customer.phoneNumber.containsIgnoreCase(phoneNumber) : null;
+        if (!StringUtils.hasText(phoneNumber)) {
+            return null;
+        }
+        String reversed = PhoneNumberUtil.reversed(phoneNumber);
+        return reversed != null ? QCustomer.customer.phoneNumberReversed.startsWith(reversed) : QCustomer.customer.phoneNumber.containsIgnoreCase(phoneNumber);
     }
 
+    // 주소 테이블을 join 하면 주소 개수만큼 고객 행이 중복되므로 exists 서브쿼리로 필터링합니다.
     private BooleanExpression addressContains(String address) {
-        return StringUtils.hasText(address) ? QAddress.address.destAddress.containsIgnoreCase(address) : null;
+        if (!StringUtils.hasText(address)) {
+            return null;
+        }
+        QAddress customerAddress = QAddress.address;
+        return JPAExpressions.selectOne()
+                .from(customerAddress)
+                .where(customerAddress.customer.id.eq(QCustomer.customer.id),
+                        customerAddress.destAddress.containsIgnoreCase(address))
+                .exists();
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,18 @@
 package com.dlnl.deliveryguard.repository;
 
+import com.dlnl.deliveryguard.web.DTO.OrderCursor;
 import com.dlnl.deliveryguard.web.DTO.OrderListResponse;
 import com.dlnl.deliveryguard.web.DTO.OrderSearchCriteria;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface CustomOrderRepository {
     Page<OrderListResponse> searchOrders(OrderSearchCriteria criteria, Pageable pageable, Long storeId);
-}
\ No newline at end of file
+
+    // 전체 건수(count 쿼리) 없이 다음 페이지 존재 여부만 판단하는 offset 검색
+    Slice<OrderListResponse> searchOrdersSlice(OrderSearchCriteria criteria, Pageable pageable, Long storeId);
+
+    // keyset 방식 검색: cursor 이후의 주문을 (order_date_time, id) 내림차순으로 size건 조회 (cursor가 null이면 첫 페이지)
+    Slice<OrderListResponse> searchOrdersAfter(OrderSearchCriteria criteria, OrderCursor cursor, int size, Long storeId);
+}
@@ -1,120 +1,266 @@
 package com.dlnl.deliveryguard.repository;
 
+import com.dlnl.deliveryguard.config.PhoneNumberUtil;
 import com.dlnl.deliveryguard.domain.*;
+import com.dlnl.deliveryguard.web.DTO.OrderCursor;
 import com.dlnl.deliveryguard.web.DTO.OrderListResponse;
 import com.dlnl.deliveryguard.web.DTO.OrderSearchCriteria;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 public class CustomOrderRepositoryImpl implements CustomOrderRepository {
 
+    private static final String COUNT_SCOPE = "orders";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final SearchCountCache searchCountCache;
+
+    private final MenuNameIndex menuNameIndex;
+
+    public CustomOrderRepositoryImpl(SearchCountCache searchCountCache, MenuNameIndex menuNameIndex) {
+        this.searchCountCache = searchCountCache;
+        this.menuNameIndex = menuNameIndex;
+    }
+
     @Override
     public Page<OrderListResponse> searchOrders(OrderSearchCriteria criteria, Pageable pageable, Long storeId) {
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
         QOrder order = QOrder.order;
-        QMenu menu = QMenu.menu;
+        Predicate[] conditions = searchConditions(order, criteria, storeId);
+
+        // 1단계: 컬렉션 join 없이 목록에 필요한 주문 컬럼만 조회 (offset / limit 이 SQL에 그대로 적용됨)
+        List<Tuple> rows = selectListRows(queryFactory)
+                .where(conditions)
+                .orderBy(order.orderDateTime.desc(), order.id.desc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // 2단계: 해당 주문들의 메뉴 행만 한 번에 조회해서 주문별로 묶음
+        List<OrderListResponse> results = toListResponses(queryFactory, rows);
+
+        // 마지막 페이지가 확실하면 count 쿼리를 생략하고, 필요한 경우에도 가게별 캐시를 먼저 확인합니다.
+        return PageableExecutionUtils.getPage(results, pageable, () -> searchCountCache.get(COUNT_SCOPE, storeId, criteria, () -> {
+            Long total = queryFactory
+                    .select(order.count())
+                    .from(order)
+                    .where(conditions)
+                    .fetchOne();
+            return total != null ? total : 0L;
+        }));
+    }
+
+    @Override
+    public Slice<OrderListResponse> searchOrdersSlice(OrderSearchCriteria criteria, Pageable pageable, Long storeId) {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
+        QOrder order = QOrder.order;
+
+        // size + 1건을 읽어 다음 페이지 존재 여부를 판단합니다.
+        List<Tuple> rows = selectListRows(queryFactory)
+                .where(searchConditions(order, criteria, storeId))
+                .orderBy(order.orderDateTime.desc(), order.id.desc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<OrderListResponse> results = toListResponses(queryFactory, hasNext ? rows.subList(0, pageable.getPageSize()) : rows);
+
+        return new SliceImpl<>(results, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<OrderListResponse> searchOrdersAfter(OrderSearchCriteria criteria, OrderCursor cursor, int size, Long storeId) {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
+        QOrder order = QOrder.order;
+
+        // (store_id, order_date_time) 인덱스를 타고 cursor 위치부터 size + 1건만 읽어 다음 페이지 존재 여부를 판단합니다.
+        // MySQL 은 DESC 정렬에서 NULL 을 맨 뒤에 두므로, 주문 일시가 없는 주문도 offset 방식과 같은 순서로 마지막에 나옵니다.
+        List<Tuple> rows = selectListRows(queryFactory)
+                .where(searchConditions(order, criteria, storeId))
+                .where(afterCursor(order, cursor))
+                .orderBy(order.orderDateTime.desc(), order.id.desc())
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<OrderListResponse> results = toListResponses(queryFactory, hasNext ? rows.subList(0, size) : rows);
+
+        return new SliceImpl<>(results, PageRequest.of(0, size), hasNext);
+    }
+
+    // 엔티티 대신 OrderListResponse에 필요한 컬럼만 tuple로 조회합니다. (영속성 컨텍스트 / dirty checking 스냅샷 없음)
+    private JPAQuery<Tuple> selectListRows(JPAQueryFactory queryFactory) {
+        QOrder order = QOrder.order;
         QCustomer customer = QCustomer.customer;
         QAddress address = QAddress.address;
-        QOrderMenu orderMenu = QOrderMenu.orderMenu;
 
-        // fetch join을 사용하여 관련 데이터를 모두 가져옵니다.
-        List<OrderListResponse> results = queryFactory
-                .select(order)
+        return queryFactory
+                .select(order.id,
+                        order.orderDateTime,
+                        order.CustomerPhoneNumber,
+                        customer.nickname,
+                        customer.customerID,
+                        order.orderNumber,
+                        order.orderPlatform,
+                        order.paymentMethod,
+                        order.orderType,
+                        order.status,
+                        order.paymentAmount,
+                        address.destAddress,
+                        order.estimatedCookingTime,
+                        order.deliveryAgency,
+                        order.riderRequestTime)
                 .from(order)
-                .leftJoin(order.orderMenus, orderMenu).fetchJoin() // fetch join
-                .leftJoin(orderMenu.menu, menu).fetchJoin() // fetch join
-                .leftJoin(order.customer, customer).fetchJoin() // fetch join
-                .leftJoin(order.address, address).fetchJoin() // fetch join
-                .where(
-                        order.store.id.eq(storeId),
-                        orderDateTimeEq(order, criteria.getOrderDateTime()),
-                        menuNameContains(order, criteria.getMenuName()),
-                        customerPhoneNumberContains(order, criteria.getCustomerPhoneNumber()),
-                        orderNumberContains(order, criteria.getOrderNumber()),
-                        orderPlatformEq(order, criteria.getOrderPlatform()),
-                        paymentMethodEq(order, criteria.getPaymentMethod()),
-                        orderTypeEq(order, criteria.getOrderType()),
-                        statusEq(order, criteria.getStatus()),
-                        paymentAmountEq(order, criteria.getPaymentAmount())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch()
-                .stream()
-                .map(o -> OrderListResponse.builder()
-                        .orderDateTime(o.getOrderDateTime())
-                        .menus(o.getOrderMenus().stream()
-                                .map(om -> OrderListResponse.MenuWithQuantity.builder()
-                                        .menuName(om.getMenu().getName())
-                                        .quantity(om.getQuantity())
-                                        .build())
-                                .collect(Collectors.toList()))
-                        .customerPhoneNumber(o.getCustomerPhoneNumber())
-                        .customerNickname(o.getCustomer().getNickname())
-                        .customerID(o.getCustomer().getCustomerID())
-                        .orderNumber(o.getOrderNumber())
-                        .orderPlatform(o.getOrderPlatform())
-                        .paymentMethod(o.getPaymentMethod())
-                        .orderType(o.getOrderType())
-                        .status(o.getStatus())
-                        .paymentAmount(o.getPaymentAmount())
-                        .address(o.getAddress().getDestAddress())  // 주문에 연결된 주소 출력
-                        .estimatedCookingTime(o.getEstimatedCookingTime())
-                        .deliveryAgency(o.getDeliveryAgency())
-                        .riderRequestTime(o.getRiderRequestTime())
+                .leftJoin(order.customer, customer)
+                .leftJoin(order.address, address);
+    }
+
+    private List<OrderListResponse> toListResponses(JPAQueryFactory queryFactory, List<Tuple> rows) {
+        QOrder order = QOrder.order;
+        QCustomer customer = QCustomer.customer;
+        QAddress address = QAddress.address;
+
+        List<Long> orderIds = rows.stream()
+                .map(row -> row.get(order.id))
+                .collect(Collectors.toList());
+        Map<Long, List<OrderListResponse.MenuWithQuantity>> menusByOrderId = fetchMenusByOrderId(queryFactory, orderIds);
+
+        return rows.stream()
+                .map(row -> OrderListResponse.builder()
+                        .orderId(row.get(order.id))
+                        .orderDateTime(row.get(order.orderDateTime))
+                        .menus(menusByOrderId.getOrDefault(row.get(order.id), Collections.emptyList()))
+                        .customerPhoneNumber(row.get(order.CustomerPhoneNumber))
+                        .customerNickname(row.get(customer.nickname))
+                        .customerID(row.get(customer.customerID))
+                        .orderNumber(row.get(order.orderNumber))
+                        .orderPlatform(row.get(order.orderPlatform))
+                        .paymentMethod(row.get(order.paymentMethod))
+                        .orderType(row.get(order.orderType))
+                        .status(row.get(order.status))
+                        .paymentAmount(row.get(order.paymentAmount))
+                        .address(row.get(address.destAddress))  // 주문에 연결된 주소 출력
+                        .estimatedCookingTime(row.get(order.estimatedCookingTime))
+                        .deliveryAgency(row.get(order.deliveryAgency))
+                        .riderRequestTime(row.get(order.riderRequestTime))
                         .build())
                 .collect(Collectors.toList());
+    }
 
-        long total = queryFactory
-                .selectFrom(order)
-                .where(
-                        order.store.id.eq(storeId),
-                        orderDateTimeEq(order, criteria.getOrderDateTime()),
-                        menuNameContains(order, criteria.getMenuName()),
-                        customerPhoneNumberContains(order, criteria.getCustomerPhoneNumber()),
-                        orderNumberContains(order, criteria.getOrderNumber()),
-                        orderPlatformEq(order, criteria.getOrderPlatform()),
-                        paymentMethodEq(order, criteria.getPaymentMethod()),
-                        orderTypeEq(order, criteria.getOrderType()),
-                        statusEq(order, criteria.getStatus()),
-                        paymentAmountEq(order, criteria.getPaymentAmount())
-                )
-                .fetchCount();
-
-        return new PageImpl<>(results, pageable, total);
+    // (주문 ID, 메뉴명, 수량) 행을 조회해 주문 ID 별로 그룹핑합니다.
+    private Map<Long, List<OrderListResponse.MenuWithQuantity>> fetchMenusByOrderId(JPAQueryFactory queryFactory, List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        QOrderMenu orderMenu = QOrderMenu.orderMenu;
+        QMenu menu = QMenu.menu;
+
+        return queryFactory
+                .select(orderMenu.order.id, menu.name, orderMenu.quantity)
+                .from(orderMenu)
+                .join(orderMenu.menu, menu)
+                .where(orderMenu.order.id.in(orderIds))
+                .orderBy(orderMenu.id.asc())
+                .fetch()
+                .stream()
+                .collect(Collectors.groupingBy(
+                        row -> row.get(orderMenu.order.id),
+                        Collectors.mapping(row -> OrderListResponse.MenuWithQuantity.builder()
+                                        .menuName(row.get(menu.name))
+                                        .quantity(row.get(orderMenu.quantity))
+                                        .build(),
+                                Collectors.toList())));
+    }
+
+    private Predicate[] searchConditions(QOrder order, OrderSearchCriteria criteria, Long storeId) {
+        return new Predicate[]{
+                order.store.id.eq(storeId),
+                orderDateTimeEq(order, criteria.getOrderDateTime()),
+                orderDateTimeGoe(order, criteria.getOrderDateTimeFrom()),
+                orderDateTimeLt(order, criteria.getOrderDateTimeTo()),
+                menuNameContains(order, criteria.getMenuName()),
+                customerPhoneNumberContains(order, criteria.getCustomerPhoneNumber()),
+                orderNumberContains(order, criteria.getOrderNumber()),
+                orderPlatformEq(order, criteria.getOrderPlatform()),
+                paymentMethodEq(order, criteria.getPaymentMethod()),
+                orderTypeEq(order, criteria.getOrderType()),
+                statusEq(order, criteria.getStatus()),
+                paymentAmountEq(order, criteria.getPaymentAmount()),
+                paymentAmountGoe(order, criteria.getMinPaymentAmount()),
+                paymentAmountLoe(order, criteria.getMaxPaymentAmount())
+        };
     }
+
+    // (주문 일시 DESC NULLS LAST, id DESC) 순서에서 cursor 다음 위치
+    private BooleanExpression afterCursor(QOrder order, OrderCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.getOrderDateTime() == null) {
+            return order.orderDateTime.isNull().and(order.id.lt(cursor.getOrderId()));
+        }
+        return order.orderDateTime.lt(cursor.getOrderDateTime())
+                .or(order.orderDateTime.eq(cursor.getOrderDateTime()).and(order.id.lt(cursor.getOrderId())))
+                .or(order.orderDateTime.isNull());
+    }
+
     private BooleanExpression orderDateTimeEq(QOrder order, LocalDateTime orderDateTime) {
         return orderDateTime != null ? order.orderDateTime.eq(orderDateTime) : null;
     }
 
+    private BooleanExpression orderDateTimeGoe(QOrder order, LocalDateTime from) {
+        return from != null ? order.orderDateTime.goe(from) : null;
+    }
+
+    private BooleanExpression orderDateTimeLt(QOrder order, LocalDateTime to) {
+        return to != null ? order.orderDateTime.lt(to) : null;
+    }
+
+    // 메뉴명 인덱스로 메뉴 ID를 먼저 찾고, (menu_id, order_id) 인덱스를 타는 IN 서브쿼리로 주문을 거릅니다.
     private BooleanExpression menuNameContains(QOrder order, String menuName) {
-        if (menuName == null) {
+        if (!StringUtils.hasText(menuName)) {
             return null;
         }
+        Set<Long> menuIds = menuNameIndex.findMenuIds(menuName);
+        if (menuIds.isEmpty()) {
+            return order.id.isNull();  // 일치하는 메뉴가 없으면 항상 거짓 (id 는 null 이 될 수 없음)
+        }
         QOrderMenu orderMenu = QOrderMenu.orderMenu;
-        QMenu menu = QMenu.menu;
-        return JPAExpressions.selectOne()
+        return order.id.in(JPAExpressions.select(orderMenu.order.id)
                 .from(orderMenu)
-                .join(orderMenu.menu, menu)
-                .where(menu.name.containsIgnoreCase(menuName)
-                        .and(orderMenu.order.id.eq(order.id)))  // 주문과 메뉴의 관계를 확인
-                .exists();
+                .where(orderMenu.menu.id.in(menuIds)));
     }
 
+    // 전화번호 뒷자리 검색: 뒤집은 번호 컬럼의 prefix 검색으로 (store_id, customer_phone_number_reversed) 인덱스를 탑니다.
     private BooleanExpression customerPhoneNumberContains(QOrder order, String phoneNumber) {
-        return phoneNumber != null ? order.CustomerPhoneNumber.contains(phoneNumber) : null;
+        if (phoneNumber == null) {
+            return null;
+        }
+        String reversed = PhoneNumberUtil.reversed(phoneNumber);
+        return reversed != null ? order.customerPhoneNumberReversed.startsWith(reversed) : order.CustomerPhoneNumber.contains(phoneNumber);
     }
 
     private BooleanExpression orderNumberContains(QOrder order, String orderNumber) {
@@ -140,4 +286,12 @@ public class CustomOrderRepositoryImpl implements CustomOrderRepository {
     private BooleanExpression paymentAmountEq(QOrder order, String paymentAmount) {
         return paymentAmount != null ? order.paymentAmount.eq(paymentAmount) : null;
     }
+
+    private BooleanExpression paymentAmountGoe(QOrder order, Integer minPaymentAmount) {
+        return minPaymentAmount != null ? order.paymentAmountValue.goe(minPaymentAmount) : null;
+    }
+
+    private BooleanExpression paymentAmountLoe(QOrder order, Integer maxPaymentAmount) {
+        return maxPaymentAmount != null ? order.paymentAmountValue.loe(maxPaymentAmount) : null;
+    }
 }
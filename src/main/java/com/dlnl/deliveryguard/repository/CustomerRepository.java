@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long>, Query
     Optional<Customer> findByCustomerID(String customerID);
 
     Optional<Customer> findByPhoneNumber(String customerPhoneNumber);
+
+    List<Customer> findByStoreIdAndPhoneNumberIn(Long storeId, Collection<String> phoneNumbers);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.DeliveryPollLease;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeliveryPollLeaseRepository extends JpaRepository<DeliveryPollLease, Integer> {
+
+    // 비어 있거나 만료됐거나 내가 가진 shard 를 잠급니다. 다른 노드가 잠근 행은 기다리지 않고 건너뜁니다. (FOR UPDATE SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select l from DeliveryPollLease l " +
+            "where l.owner is null or l.leaseUntil is null or l.leaseUntil < :now or l.owner = :owner " +
+            "order by l.shardNo")
+    List<DeliveryPollLease> findClaimable(@Param("now") LocalDateTime now, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "insert ignore into delivery_poll_leases (shard_no) values (:shardNo)", nativeQuery = true)
+    int createIfAbsent(@Param("shardNo") Integer shardNo);
+
+    @Modifying
+    @Query("update DeliveryPollLease l set l.owner = null, l.leaseUntil = null where l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,21 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.DeliveryPollNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface DeliveryPollNodeRepository extends JpaRepository<DeliveryPollNode, String> {
+
+    @Modifying
+    @Query(value = "insert into delivery_poll_nodes (node_id, heartbeat_at) values (:nodeId, :now) " +
+            "on duplicate key update heartbeat_at = :now", nativeQuery = true)
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    long countByHeartbeatAtAfter(LocalDateTime since);
+}
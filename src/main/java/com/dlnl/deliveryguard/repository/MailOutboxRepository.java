@@ -0,0 +1,26 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.MailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // 발송 시각이 된 메일을 잠급니다. 다른 노드가 잠근 행은 기다리지 않고 건너뜁니다. (FOR UPDATE SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from MailOutbox m where m.status = com.dlnl.deliveryguard.domain.MailOutbox.Status.PENDING " +
+            "and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<MailOutbox> findDispatchable(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,81 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.Menu;
+import com.dlnl.deliveryguard.domain.MenuChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 등록 / 배달 요청에서 쓰는 메뉴 정보(id, 이름, 가격)를 메모리에 캐싱합니다.
+ * 없는 항목만 IN 조회로 한 번에 읽고, 메뉴가 변경되면(MenuChangedEvent) 커밋 이후 전체를 무효화합니다.
+ * 메뉴는 가게 구분 없이 전역으로 관리되므로 캐시도 전역입니다.
+ */
+@Component
+public class MenuCatalog {
+
+    private final MenuRepository menuRepository;
+
+    private final Cache<String, MenuEntry> byName;
+
+    private final Cache<Long, MenuEntry> byId;
+
+    public MenuCatalog(MenuRepository menuRepository,
+                       @Value("${menu.catalog.max-size:10000}") long maxSize,
+                       @Value("${menu.catalog.ttl-seconds:600}") long ttlSeconds) {
+        this.menuRepository = menuRepository;
+        this.byName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    // 존재하지 않는 메뉴명은 결과에 포함되지 않습니다. (캐싱하지 않으므로 추가되면 바로 조회됨)
+    public Map<String, MenuEntry> findByNames(Collection<String> names) {
+        return byName.getAll(names, missing -> toEntries(menuRepository.findByNameIn(new ArrayList<>(missing)), MenuEntry::getName));
+    }
+
+    public Map<Long, MenuEntry> findByIds(Collection<Long> ids) {
+        return byId.getAll(ids, missing -> toEntries(menuRepository.findAllById(new ArrayList<>(missing)), MenuEntry::getId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        byName.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    private static <K> Map<K, MenuEntry> toEntries(List<Menu> menus, Function<MenuEntry, K> key) {
+        return menus.stream()
+                .map(menu -> new MenuEntry(menu.getId(), menu.getName(), menu.getPrice()))
+                .collect(Collectors.toMap(key, entry -> entry, (first, second) -> first));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MenuEntry {
+        private final Long id;
+        private final String name;
+        private final String price;
+    }
+}
@@ -0,0 +1,138 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.MenuChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 메뉴명 검색용 메모리 n-gram(2-gram) 인덱스입니다.
+ * 검색어를 먼저 메뉴 ID 집합으로 바꾼 뒤, 주문 검색은 order_menus.menu_id IN (...) 조건만 사용합니다.
+ * 메뉴가 변경되면(MenuChangedEvent) 커밋 이후 무효화되며, 그 외에는 refresh-seconds 주기로 다시 구성됩니다.
+ */
+@Component
+public class MenuNameIndex {
+
+    private static final int GRAM_SIZE = 2;
+
+    private final MenuRepository menuRepository;
+
+    private final Duration refreshInterval;
+
+    private volatile Snapshot snapshot;
+
+    public MenuNameIndex(MenuRepository menuRepository,
+                         @Value("${search.menu-name-index.refresh-seconds:300}") long refreshSeconds) {
+        this.menuRepository = menuRepository;
+        this.refreshInterval = Duration.ofSeconds(refreshSeconds);
+    }
+
+    // 메뉴명에 검색어가 포함된(대소문자 무시) 메뉴 ID 목록
+    public Set<Long> findMenuIds(String term) {
+        String normalized = normalize(term);
+        if (normalized.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return currentSnapshot().search(normalized);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.isExpired()) {
+                current = build();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot build() {
+        Map<Long, String> names = new HashMap<>();
+        Map<String, Set<Long>> postings = new HashMap<>();
+
+        for (MenuRepository.MenuName menu : menuRepository.findAllMenuNames()) {
+            String name = normalize(menu.getName());
+            names.put(menu.getId(), name);
+            for (String gram : grams(name)) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(menu.getId());
+            }
+        }
+        return new Snapshot(names, postings, Instant.now().plus(refreshInterval));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static class Snapshot {
+        private final Map<Long, String> names;
+        private final Map<String, Set<Long>> postings;
+        private final Instant expiresAt;
+
+        private Snapshot(Map<Long, String> names, Map<String, Set<Long>> postings, Instant expiresAt) {
+            this.names = names;
+            this.postings = postings;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+
+        private Set<Long> search(String term) {
+            // 한 글자 검색어는 gram 이 없으므로 메뉴명 전체를 훑습니다. (메뉴 수만큼, DB 접근 없음)
+            if (term.length() < GRAM_SIZE) {
+                return matching(names.keySet(), term);
+            }
+
+            // 가장 작은 posting 목록을 후보로 잡고, 나머지 gram 으로 교집합 / 실제 포함 여부를 확인합니다.
+            Set<Long> candidates = null;
+            for (String gram : grams(term)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                if (candidates == null || ids.size() < candidates.size()) {
+                    candidates = ids;
+                }
+            }
+            return matching(candidates, term);
+        }
+
+        private Set<Long> matching(Collection<Long> candidates, String term) {
+            Set<Long> result = new HashSet<>();
+            for (Long id : candidates) {
+                if (names.get(id).contains(term)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -2,9 +2,23 @@ package com.dlnl.deliveryguard.repository;
 
 import com.dlnl.deliveryguard.domain.Menu;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MenuRepository extends JpaRepository<Menu, Long> {
     Optional<Menu> findByName(String menuName);
+
+    List<Menu> findByNameIn(Collection<String> menuNames);
+
+    // 메뉴명 검색 인덱스 구성용 (id, name 컬럼만 조회)
+    @Query("select m.id as id, m.name as name from Menu m")
+    List<MenuName> findAllMenuNames();
+
+    interface MenuName {
+        Long getId();
+        String getName();
+    }
 }
@@ -2,9 +2,16 @@ package com.dlnl.deliveryguard.repository;
 
 import com.dlnl.deliveryguard.domain.Order;
 import com.dlnl.deliveryguard.domain.Status;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +20,68 @@ public interface OrderRepository extends JpaRepository<Order, Long> , CustomOrde
     Optional<Order> findByOrderNumberAndOrderPlatform(String orderNumber, String orderPlatform);
     List<Order> findAllByStatus(Status status);
 
-}
\ No newline at end of file
+    // 주문 상세 조회: 가게 소유자 확인을 SQL 조건으로 처리하고, 주소 / 주문 메뉴 / 메뉴를 한 번에 fetch 합니다.
+    @EntityGraph(attributePaths = {"address", "orderMenus", "orderMenus.menu"})
+    @Query("select o from Order o where o.id = :orderId and o.store.owner.id = :ownerId")
+    Optional<Order> findDetailByIdAndOwnerId(@Param("orderId") Long orderId, @Param("ownerId") Long ownerId);
+
+    @Query("select o.status from Order o where o.id = :orderId and o.store.id = :storeId")
+    Optional<Status> findStatusByIdAndStoreId(@Param("orderId") Long orderId, @Param("storeId") Long storeId);
+
+    // 상태 전이는 조건부 UPDATE 한 번으로 처리합니다. 현재 상태가 allowed 에 없거나 다른 가게의 주문이면 0을 반환합니다.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status " +
+            "where o.id = :orderId and o.store.id = :storeId and o.status in :allowed")
+    int transitionStatus(@Param("orderId") Long orderId, @Param("storeId") Long storeId,
+                         @Param("allowed") Collection<Status> allowed, @Param("status") Status status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.dlnl.deliveryguard.domain.Status.PROCESSING, o.estimatedCookingTime = :estimatedCookingTime " +
+            "where o.id = :orderId and o.store.id = :storeId and o.status in :allowed")
+    int accept(@Param("orderId") Long orderId, @Param("storeId") Long storeId,
+               @Param("allowed") Collection<Status> allowed, @Param("estimatedCookingTime") Time estimatedCookingTime);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.dlnl.deliveryguard.domain.Status.CANCELED, o.cancelReason = :cancelReason " +
+            "where o.id = :orderId and o.store.id = :storeId and o.status in :allowed")
+    int cancel(@Param("orderId") Long orderId, @Param("storeId") Long storeId,
+               @Param("allowed") Collection<Status> allowed, @Param("cancelReason") String cancelReason);
+
+    // 대행사가 접수한 배달 ID 기록. 배차 요청 가능한 상태이고 아직 배달 ID 가 없는 주문만 (그 사이 취소됐거나 다른 요청이 먼저 기록했으면 0)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.deliveryId = :deliveryId " +
+            "where o.id = :orderId and o.store.id = :storeId and o.status in :allowed and o.deliveryId is null")
+    int assignDeliveryId(@Param("orderId") Long orderId, @Param("storeId") Long storeId,
+                         @Param("allowed") Collection<Status> allowed, @Param("deliveryId") String deliveryId);
+
+    // 대행사 요청이 실패하면 배차 요청 기록을 되돌립니다. (그 사이 배달 ID 가 기록됐거나 다시 요청한 주문은 제외)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.deliveryAgency = null, o.pickupIn = null, o.riderRequestTime = null " +
+            "where o.id = :orderId and o.store.id = :storeId and o.deliveryId is null and o.riderRequestTime = :requestedAt")
+    int clearRiderRequest(@Param("orderId") Long orderId, @Param("storeId") Long storeId, @Param("requestedAt") LocalDateTime requestedAt);
+
+    // 배달 추적 대상: 진행 중 상태이면서 대행사 배달 ID가 있고, webhook 수신이 없거나 pushStaleBefore 이전에 멈춘 주문 중 shards 에 속한 주문 (대행사 코드는 대문자로 비교)
+    @Query("select o.id as id, o.store.id as storeId, o.deliveryId as deliveryId, o.deliveryAgency as deliveryAgency, o.status as status " +
+            "from Order o where o.status in :statuses and o.deliveryId is not null and upper(o.deliveryAgency) in :deliveryAgencies " +
+            "and (o.deliveryPushedAt is null or o.deliveryPushedAt < :pushStaleBefore) " +
+            "and mod(o.id, :shardCount) in :shards")
+    List<TrackedDelivery> findTrackedDeliveries(@Param("statuses") Collection<Status> statuses, @Param("deliveryAgencies") Collection<String> deliveryAgencies,
+                                                @Param("pushStaleBefore") LocalDateTime pushStaleBefore,
+                                                @Param("shardCount") int shardCount, @Param("shards") Collection<Integer> shards);
+
+    // 대행사 배달 ID 는 대행사 안에서만 고유하므로 여러 건일 수 있습니다. deliveryAgency(대문자)가 null 이면 모든 대행사에서 찾습니다.
+    @Query("select o.id as id, o.store.id as storeId, o.deliveryId as deliveryId, o.deliveryAgency as deliveryAgency, o.status as status " +
+            "from Order o where o.deliveryId = :deliveryId and (:deliveryAgency is null or upper(o.deliveryAgency) = :deliveryAgency)")
+    List<TrackedDelivery> findTrackedDeliveriesByDeliveryId(@Param("deliveryAgency") String deliveryAgency, @Param("deliveryId") String deliveryId);
+
+    // 대행사 webhook 수신 시각 기록 (이 시각이 최근이면 상태 조회 대상에서 제외)
+    @Modifying
+    @Query("update Order o set o.deliveryPushedAt = :pushedAt where o.id = :orderId")
+    int markDeliveryPushed(@Param("orderId") Long orderId, @Param("pushedAt") LocalDateTime pushedAt);
+
+    // 여러 주문의 상태를 한 번에 변경합니다. (현재 상태가 allowed 에 있는 주문만)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status where o.id in :orderIds and o.status in :allowed")
+    int transitionStatuses(@Param("orderIds") Collection<Long> orderIds,
+                           @Param("allowed") Collection<Status> allowed, @Param("status") Status status);
+}
@@ -0,0 +1,42 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // 토큰 교체: 아직 폐기되지 않았고 만료되지 않은 경우에만 폐기합니다. 1이면 교체 성공, 0이면 이미 사용했거나 없는 토큰
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now " +
+            "where r.tokenHash = :tokenHash and r.userId = :userId and r.revokedAt is null and r.expiresAt > :now")
+    int revokeIfActive(@Param("tokenHash") String tokenHash, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // 폐기된 토큰인지 확인합니다. (재사용 감지)
+    boolean existsByTokenHashAndUserIdAndRevokedAtIsNotNull(String tokenHash, Long userId);
+
+    // 같은 기기로 다시 로그인하면 이전 세션을 폐기합니다.
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.userId = :userId and r.deviceId = :deviceId and r.revokedAt is null")
+    int revokeByUserIdAndDeviceId(@Param("userId") Long userId, @Param("deviceId") String deviceId, @Param("now") LocalDateTime now);
+
+    // 비밀번호 변경 / 재설정 또는 토큰 재사용이 감지되면 모든 기기의 세션을 폐기합니다.
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.userId = :userId and r.revokedAt is null")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // 폐기됐지만 아직 만료되지 않은 토큰 해시 (폐기 필터 재구성용)
+    @Query("select r.tokenHash from RefreshToken r where r.revokedAt is not null and r.expiresAt > :now")
+    List<String> findRevokedTokenHashes(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,84 @@
+package com.dlnl.deliveryguard.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * 폐기된 refresh 토큰 해시의 bloom filter. 여기에 없으면 이 서버에서 폐기한 적이 없는 토큰이고,
+ * 있으면 (false positive 확률만큼을 제외하면) 폐기된 토큰이므로 DB 를 거치지 않고 재발급을 거절합니다.
+ * 다른 서버에서 폐기한 토큰은 재구성(rebuild) 전까지 모를 수 있지만, 그 경우에도 교체 시 조건부 update 에서 걸러집니다.
+ */
+@Component
+public class RevokedTokenFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+
+    private volatile BitSet bits;
+
+    public RevokedTokenFilter(@Value("${auth.refresh-token.revoked-filter.expected-entries:100000}") int expectedEntries,
+                              @Value("${auth.refresh-token.revoked-filter.false-positive-rate:0.0001}") double falsePositiveRate) {
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        double ln2 = Math.log(2);
+        this.bitCount = (int) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * ln2));
+        this.bits = new BitSet(bitCount);
+    }
+
+    public void add(String tokenHash) {
+        BitSet target = bits;
+        synchronized (target) {
+            for (int i = 0; i < hashCount; i++) {
+                target.set(index(tokenHash, i));
+            }
+        }
+    }
+
+    public boolean mightContain(String tokenHash) {
+        BitSet target = bits;
+        synchronized (target) {
+            for (int i = 0; i < hashCount; i++) {
+                if (!target.get(index(tokenHash, i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // 만료된 토큰을 비우기 위해 현재 폐기 목록으로 다시 만듭니다.
+    public void rebuild(Collection<String> revokedTokenHashes) {
+        BitSet rebuilt = new BitSet(bitCount);
+        for (String tokenHash : revokedTokenHashes) {
+            for (int i = 0; i < hashCount; i++) {
+                rebuilt.set(index(tokenHash, i));
+            }
+        }
+        this.bits = rebuilt;
+    }
+
+    // double hashing: h1 + i * h2 (토큰 해시가 이미 SHA-256 이므로 두 개의 32bit 값으로 충분합니다)
+    private int index(String tokenHash, int i) {
+        byte[] bytes = tokenHash.getBytes(StandardCharsets.UTF_8);
+        int h1 = murmurMix(bytes, 0x9747b28c);
+        int h2 = murmurMix(bytes, h1);
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    private static int murmurMix(byte[] bytes, int seed) {
+        int h = seed;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x5bd1e995;
+            h ^= h >>> 15;
+        }
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,96 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.web.DTO.OrderSearchCriteria;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * 주문 / 고객 검색의 전체 건수(count 쿼리 결과)를 가게별로 짧은 시간 캐싱합니다.
+ * 주문 / 고객 쓰기 경로에서 evictStore 를 호출해 해당 가게의 건수를 무효화합니다.
+ */
+@Component
+public class SearchCountCache {
+
+    private final Cache<CountKey, Long> counts;
+
+    public SearchCountCache(@Value("${search.count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    // filter: 검색 조건 값 목록. 키에는 복사본을 저장하므로 호출한 쪽에서 목록을 바꿔도 캐시 키는 바뀌지 않습니다.
+    public long get(String scope, Long storeId, List<?> filter, LongSupplier countQuery) {
+        return get(new CountKey(scope, storeId, Collections.unmodifiableList(new ArrayList<>(filter))), countQuery);
+    }
+
+    // 주문 검색 조건은 setter 로 바뀔 수 있는 DTO 이므로, 조회 시점의 값으로 키를 만듭니다.
+    public long get(String scope, Long storeId, OrderSearchCriteria criteria, LongSupplier countQuery) {
+        return get(CountKey.of(scope, storeId, criteria), countQuery);
+    }
+
+    private long get(CountKey countKey, LongSupplier countQuery) {
+        Long count = counts.get(countKey, key -> countQuery.getAsLong());
+        return count != null ? count : 0L;
+    }
+
+    // 트랜잭션 안에서 호출되면 커밋 이후에 무효화해서, 커밋 전 값이 다시 캐싱되는 것을 막습니다.
+    public void evictStore(Long storeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(storeId);
+                }
+            });
+        } else {
+            evictNow(storeId);
+        }
+    }
+
+    private void evictNow(Long storeId) {
+        counts.asMap().keySet().removeIf(key -> Objects.equals(key.getStoreId(), storeId));
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class CountKey {
+        private final String scope;         // orders, customers
+        private final Long storeId;
+        private final List<Object> filter;  // 검색 조건 값 (수정할 수 없는 목록)
+
+        static CountKey of(String scope, Long storeId, OrderSearchCriteria criteria) {
+            return new CountKey(scope, storeId, Collections.unmodifiableList(Arrays.asList(
+                    criteria.getOrderDateTime(),
+                    criteria.getMenuName(),
+                    criteria.getCustomerPhoneNumber(),
+                    criteria.getOrderNumber(),
+                    criteria.getOrderPlatform(),
+                    criteria.getPaymentMethod(),
+                    criteria.getOrderType(),
+                    criteria.getStatus(),
+                    criteria.getPaymentAmount(),
+                    criteria.getOrderDateTimeFrom(),
+                    criteria.getOrderDateTimeTo(),
+                    criteria.getMinPaymentAmount(),
+                    criteria.getMaxPaymentAmount())));
+        }
+    }
+}
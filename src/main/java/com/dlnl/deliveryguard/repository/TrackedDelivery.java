@@ -0,0 +1,12 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.Status;
+
+// 배달 상태 추적 대상 주문 (엔티티 대신 필요한 컬럼만 조회하는 projection)
+public interface TrackedDelivery {
+    Long getId();
+    Long getStoreId();
+    String getDeliveryId();
+    String getDeliveryAgency();
+    Status getStatus();
+}
@@ -0,0 +1,43 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.Role;
+import com.dlnl.deliveryguard.domain.Store;
+import com.dlnl.deliveryguard.domain.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// UserSnapshotCache 에 캐싱하는 사용자 / 가게 정보 (변경 불가). 엔티티가 아니므로 저장에 쓸 때는 ID 로 참조를 가져옵니다.
+@Getter
+@AllArgsConstructor
+public final class UserSnapshot {
+
+    private final Long id;
+    private final String loginId;
+    private final Role role;
+    private final Long storeId;        // 가게가 없는 사용자는 null
+    private final String storeName;
+    private final String storeAddress;
+    private final LocalDateTime updatedAt;
+
+    public static UserSnapshot of(User user) {
+        Store store = user.getStore();
+        return new UserSnapshot(user.getId(), user.getLoginID(), user.getRole(),
+                store != null ? store.getId() : null,
+                store != null ? store.getName() : null,
+                store != null ? store.getAddress() : null,
+                user.getUpdatedAt());
+    }
+
+    public boolean hasStore() {
+        return storeId != null;
+    }
+
+    // 주어진 시각(토큰 발급 시각 등) 이후에 사용자 정보가 수정되었으면 true
+    public boolean isUpdatedAfter(Instant instant) {
+        return updatedAt != null && (instant == null || updatedAt.atZone(ZoneId.systemDefault()).toInstant().isAfter(instant));
+    }
+}
@@ -0,0 +1,64 @@
+package com.dlnl.deliveryguard.repository;
+
+import com.dlnl.deliveryguard.domain.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 인증된 사용자의 UserSnapshot(가게 정보 포함)을 짧은 시간 캐싱해, 컨트롤러가 요청마다 사용자 / 가게를 다시 조회하지 않도록 합니다.
+ * 엔티티가 아닌 변경 불가 스냅샷을 캐싱하므로 요청 간에 공유되어도 안전하고,
+ * 사용자 / 가게가 수정되면(UserChangedEvent) 커밋 이후 해당 스냅샷을 무효화합니다. (다른 노드는 ttl-seconds 이후 반영)
+ */
+@Component
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+
+    private final Cache<Long, UserSnapshot> users;
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             @Value("${auth.user-snapshot.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${auth.user-snapshot.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public Optional<UserSnapshot> get(Long userId) {
+        return Optional.ofNullable(users.get(userId, id -> userRepository.findById(id).map(UserSnapshot::of).orElse(null)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() != null) {
+            users.invalidate(event.getUserId());
+        }
+        if (event.getStoreId() != null) {
+            users.asMap().values().removeIf(snapshot -> event.getStoreId().equals(snapshot.getStoreId()));
+        }
+    }
+
+    // 트랜잭션 안에서 호출되면 커밋 이후에 무효화해서, 커밋 전 값이 다시 캐싱되는 것을 막습니다.
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    users.invalidate(userId);
+                }
+            });
+        } else {
+            users.invalidate(userId);
+        }
+    }
+}
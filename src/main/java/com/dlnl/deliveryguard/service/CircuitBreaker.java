@@ -0,0 +1,136 @@
+package com.dlnl.deliveryguard.service;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 최근 windowSize 건의 호출 결과로 판단하는 회로 차단기.
+ * 실패율이 failureRateThreshold 이상이면 OPEN 으로 바뀌어 openDuration 동안 호출을 바로 거절하고,
+ * 그 뒤 HALF_OPEN 에서 halfOpenProbes 건만 시험 호출을 허용해 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN 으로 바뀝니다.
+ * 호출 허가는 허가한 시점의 상태 번호(generation)이고, 결과는 그 번호와 함께 기록합니다. 상태가 바뀐 뒤에 끝난 이전 호출의 결과는
+ * 무시하므로, CLOSED 에서 허가받아 HALF_OPEN 중에 끝난 호출이 시험 호출로 세어지지 않습니다.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public static final long NO_PERMISSION = -1;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<State, State> onTransition;   // (이전 상태, 바뀐 상태)
+
+    private final boolean[] outcomes;   // 최근 호출 실패 여부 (ring buffer)
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long generation;    // 상태가 바뀔 때마다 증가
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration, int halfOpenProbes,
+                          LongSupplier nanoClock, BiConsumer<State, State> onTransition) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.nanoClock = nanoClock;
+        this.onTransition = onTransition;
+    }
+
+    // 호출해도 되면 호출 허가(현재 generation), 아니면 NO_PERMISSION. HALF_OPEN 에서는 시험 호출 수만큼만 허용합니다.
+    public synchronized long tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return NO_PERMISSION;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                return NO_PERMISSION;
+            }
+            probesIssued++;
+        }
+        return generation;
+    }
+
+    // 허용받았지만 호출하지 못한 경우 (대기열 포화 등) 시험 호출 자리를 돌려줍니다.
+    public synchronized void releasePermission(long permission) {
+        if (permission == generation && state == State.HALF_OPEN && probesIssued > 0) {
+            probesIssued--;
+        }
+    }
+
+    public synchronized void onSuccess(long permission) {
+        if (permission != generation) {
+            return;  // 상태가 바뀌기 전에 허가받은 호출
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(long permission) {
+        if (permission != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        generation++;
+        probesIssued = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+        onTransition.accept(previous, target);
+    }
+}
@@ -1,17 +1,18 @@
 package com.dlnl.deliveryguard.service;
 
-import com.dlnl.deliveryguard.config.SecurityUtil;
 import com.dlnl.deliveryguard.domain.*;
 import com.dlnl.deliveryguard.repository.CustomerRepository;
 
 import com.dlnl.deliveryguard.repository.OrderRepository;
+import com.dlnl.deliveryguard.repository.SearchCountCache;
 import com.dlnl.deliveryguard.repository.StoreRepository;
-import com.dlnl.deliveryguard.repository.UserRepository;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
 import com.dlnl.deliveryguard.web.DTO.CustomerDetailResponse;
 import com.dlnl.deliveryguard.web.DTO.CustomerListResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,29 +28,26 @@ public class CustomerService {
 
     private final OrderRepository orderRepository;
 
-    private final UserRepository userRepository;
+    private final SearchCountCache searchCountCache;
 
-    public CustomerListResponse getCustomers(String nickname, String phoneNumber, String address, Pageable pageable) {
-        // 현재 로그인된 사용자의 loginID 또는 username을 통해 사용자 정보를 가져옴
-        String currentLoginId = SecurityUtil.getCurrentUserLogin();
-        User user = userRepository.findByLoginID(currentLoginId)
-                .orElseThrow(() -> new RuntimeException("해당 사용자를 찾을 수 없습니다."));
-
-        // 사용자의 store 정보 가져오기
-        Store store = user.getStore();
-        if (store == null) {
+    // 현재 사용자 가게의 고객 목록 (가게 정보는 사용자 스냅샷에서 가져오므로 사용자 / 가게를 다시 조회하지 않음)
+    public CustomerListResponse getCustomers(String nickname, String phoneNumber, String address, Pageable pageable, boolean withTotal, UserSnapshot user) {
+        if (!user.hasStore()) {
             throw new RuntimeException("해당 사용자에게 연결된 가게가 없습니다.");
         }
+        Long storeId = user.getStoreId();
 
         CustomerListResponse.StoreDTO storeDTO = CustomerListResponse.StoreDTO.builder()
-                .id(store.getId())
-                .storeName(store.getName())
-                .storeAddress(store.getAddress())
+                .id(storeId)
+                .storeName(user.getStoreName())
+                .storeAddress(user.getStoreAddress())
                 .build();
 
 
-        // 고객 목록 조회
-        Page<Customer> customers = customerRepository.searchCustomersByStore(store.getId(), nickname, phoneNumber, address, pageable);
+        // 고객 목록 조회 (전체 건수가 필요한 경우에만 count 쿼리 수행)
+        Slice<Customer> customers = withTotal
+                ? customerRepository.searchCustomersByStore(storeId, nickname, phoneNumber, address, pageable)
+                : customerRepository.searchCustomersSliceByStore(storeId, nickname, phoneNumber, address, pageable);
 
         // 고객 목록이 비어있는지 확인
         if (customers.isEmpty()) {
@@ -72,6 +70,8 @@ public class CustomerService {
         return CustomerListResponse.builder()
                 .store(storeDTO)  // Store 정보는 한번만 포함
                 .customers(customerDTOs)  // 고객 목록
+                .hasNext(customers.hasNext())
+                .totalElements(customers instanceof Page ? ((Page<Customer>) customers).getTotalElements() : null)
                 .build();
     }
 
@@ -108,6 +108,9 @@ public class CustomerService {
         if (newPhoneNumber != null && newPhoneNumber.startsWith("010")) {
             customer.updatePhoneNumber(newPhoneNumber);
             customerRepository.save(customer);
+            if (customer.getStore() != null) {
+                searchCountCache.evictStore(customer.getStore().getId());
+            }
         } else {
             throw new IllegalArgumentException("잘못된 전화번호 형식입니다. 010으로 시작하는 번호여야 합니다.");
         }
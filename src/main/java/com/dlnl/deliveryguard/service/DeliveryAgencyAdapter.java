@@ -0,0 +1,34 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.web.DTO.CancelDeliveryResponse;
+import com.dlnl.deliveryguard.web.DTO.DeliverySubmitResponse;
+import com.dlnl.deliveryguard.web.DTO.RiderDeliveryRequest;
+import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 배달 대행사 연동 SPI. 대행사마다 구현체를 빈으로 하나씩 등록하면 DeliveryAgencyRegistry 가 대행사 코드로 찾아 호출합니다.
+ * 호출은 모두 비동기이며, 구현체는 자기 대행사 전용 DeliveryAgencyClient 를 사용합니다.
+ */
+public interface DeliveryAgencyAdapter {
+
+    // 대행사 코드 (주문의 deliveryAgency 와 대소문자 구분 없이 비교)
+    String getAgency();
+
+    CompletableFuture<DeliverySubmitResponse> submitDelivery(RiderDeliveryRequest request);
+
+    CompletableFuture<TrackDeliveryResponse> trackDelivery(String deliveryId);
+
+    // 배달 상태 추적(폴링)용 조회. 대화형 호출과 별도의 호출 한도를 쓰며, 자리가 날 때까지 최대 maxWait 동안 기다립니다.
+    // 대행사를 호출하지 못하면 DeliveryAgencyUnavailableException 으로 실패합니다.
+    CompletableFuture<TrackDeliveryResponse> pollDelivery(String deliveryId, Duration maxWait);
+
+    CompletableFuture<CancelDeliveryResponse> cancelDelivery(String deliveryId);
+
+    // 대행사 배달 상태를 주문 상태로 변환합니다. (주문 상태에 반영할 필요가 없으면 empty)
+    Optional<Status> toOrderStatus(String deliveryStatus);
+}
@@ -0,0 +1,238 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.config.DeliveryAgencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 배달 대행사 하나의 HTTP 클라이언트. 대행사마다 커넥션 풀 / 호출 스레드 풀 / 호출 한도를 따로 두어
+ * 느린 대행사가 다른 대행사의 연결과 스레드를 붙잡지 않도록 합니다.
+ * 동시 호출 수(bulkhead)를 넘거나 회로 차단기가 열려 있으면 대행사를 호출하지 않고 DeliveryAgencyUnavailableException 으로 바로 실패합니다.
+ * 배달 상태 추적(폴링)은 poll 로 호출하며, 대화형 호출(배차 요청 / 취소 등)과 동시 호출 수 / 호출 한도 / 스레드를 따로 써서
+ * 폴링이 몰려도 대화형 호출의 자리를 쓰지 않습니다. 폴링은 자리가 날 때까지 호출한 스레드에서 기다립니다.
+ * 회로 상태는 delivery.agency.circuit.state(0 CLOSED, 1 OPEN, 2 HALF_OPEN), 상태 변경은 delivery.agency.circuit.transitions 로 기록합니다.
+ * keep-alive 연결을 재사용하고, 응답의 Content-Encoding(gzip / deflate)은 HttpClient 가 풀어서 넘겨 줍니다.
+ * 풀 사용량은 httpcomponents.httpclient.pool.* 지표로 노출합니다. (httpclient=delivery-agency-{대행사 코드})
+ */
+@Slf4j
+public class DeliveryAgencyClient implements AutoCloseable {
+
+    private final String agency;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Duration rateLimitWait;
+    private final Counter rejectedCounter;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final ExecutorService pollExecutor;
+    private final Semaphore pollBulkhead;
+    private final TokenBucketRateLimiter pollRateLimiter;
+
+    public DeliveryAgencyClient(String agency, DeliveryAgencyProperties.Agency properties, MeterRegistry meterRegistry) {
+        this.agency = agency;
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMillis()))
+                        .setTimeToLive(TimeValue.ofSeconds(properties.getConnectionTtlSeconds()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))  // 오래 쉰 연결은 재사용 전에 끊김 여부를 확인
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "delivery-agency-" + agency.toLowerCase()).bindTo(meterRegistry);
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeoutMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getResponseTimeoutMillis()))
+                        .setContentCompressionEnabled(true)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(properties.getIdleEvictSeconds()))
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getAsyncThreads(), properties.getAsyncThreads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getAsyncQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "delivery-agency-" + agency.toLowerCase() + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        // 폴링 스레드 수 = 폴링 동시 호출 수이므로 대기열은 pollBulkhead 로 제한됩니다.
+        AtomicInteger pollThreadNumber = new AtomicInteger();
+        this.pollExecutor = new ThreadPoolExecutor(properties.getPollMaxConcurrentCalls(), properties.getPollMaxConcurrentCalls(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "delivery-agency-" + agency.toLowerCase() + "-poll-" + pollThreadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.rateLimiter = new TokenBucketRateLimiter(properties.getRateLimitPerSecond(), properties.getRateLimitBurst());
+        this.pollRateLimiter = new TokenBucketRateLimiter(properties.getPollRateLimitPerSecond(), properties.getPollRateLimitBurst());
+        this.rateLimitWait = Duration.ofMillis(properties.getRateLimitWaitMillis());
+        this.rejectedCounter = Counter.builder("delivery.agency.rejected")
+                .description("회로 차단 / 동시 호출 한도 / 호출 한도 초과로 보내지 않은 대행사 호출 수")
+                .tag("agency", agency)
+                .register(meterRegistry);
+
+        this.bulkhead = new Semaphore(properties.getMaxConcurrentCalls());
+        Gauge.builder("delivery.agency.in-flight", bulkhead, semaphore -> properties.getMaxConcurrentCalls() - semaphore.availablePermits())
+                .description("대기 중이거나 실행 중인 대행사 호출 수")
+                .tag("agency", agency)
+                .register(meterRegistry);
+        this.pollBulkhead = new Semaphore(properties.getPollMaxConcurrentCalls());
+        Gauge.builder("delivery.agency.poll.in-flight", pollBulkhead, semaphore -> properties.getPollMaxConcurrentCalls() - semaphore.availablePermits())
+                .description("실행 중인 배달 상태 추적(폴링) 호출 수")
+                .tag("agency", agency)
+                .register(meterRegistry);
+
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitWindowSize(), properties.getCircuitMinimumCalls(),
+                properties.getCircuitFailureRateThreshold(), Duration.ofSeconds(properties.getCircuitOpenSeconds()),
+                properties.getCircuitHalfOpenProbes(), System::nanoTime,
+                (from, to) -> {
+                    log.warn("배달 대행사 {} 회로 상태 변경: {} -> {}", agency, from, to);
+                    Counter.builder("delivery.agency.circuit.transitions")
+                            .description("배달 대행사 회로 상태 변경 수")
+                            .tags("agency", agency, "from", from.name(), "to", to.name())
+                            .register(meterRegistry)
+                            .increment();
+                });
+        Gauge.builder("delivery.agency.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("배달 대행사 회로 상태 (0 CLOSED, 1 OPEN, 2 HALF_OPEN)")
+                .tag("agency", agency)
+                .register(meterRegistry);
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    // 호출 스레드 풀에서 호출 한도 안에 실행합니다. 호출하지 못하면 DeliveryAgencyUnavailableException 으로 실패한 future 를 돌려줍니다.
+    public <T> CompletableFuture<T> call(Supplier<T> request) {
+        if (!bulkhead.tryAcquire()) {
+            return reject("동시 호출 한도를 초과했습니다.");
+        }
+        long permission = circuitBreaker.tryAcquirePermission();
+        if (permission == CircuitBreaker.NO_PERMISSION) {
+            bulkhead.release();
+            return reject("일시적으로 사용할 수 없습니다. (회로 차단)");
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (!rateLimiter.tryAcquire(rateLimitWait)) {
+                        circuitBreaker.releasePermission(permission);
+                        rejectedCounter.increment();
+                        throw new DeliveryAgencyUnavailableException("배달 대행사 " + agency + " 호출 한도를 초과했습니다.");
+                    }
+                    return execute(request, permission);
+                } finally {
+                    bulkhead.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.releasePermission(permission);
+            return reject("호출 대기열이 가득 찼습니다.");
+        }
+    }
+
+    // 배달 상태 추적(폴링) 호출. 폴링 전용 동시 호출 자리와 호출 한도를 호출한 스레드에서 최대 maxWait 동안 기다린 뒤 폴링 스레드에서 실행합니다.
+    // 기다려도 자리가 없거나 회로가 열려 있으면 대행사를 호출하지 않고 DeliveryAgencyUnavailableException 으로 실패한 future 를 돌려줍니다.
+    public <T> CompletableFuture<T> poll(Supplier<T> request, Duration maxWait) {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        try {
+            if (!pollBulkhead.tryAcquire(Math.max(0, maxWait.toNanos()), TimeUnit.NANOSECONDS)) {
+                return reject("폴링 동시 호출 한도를 초과했습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return reject("폴링 대기 중 중단되었습니다.");
+        }
+        long permission = circuitBreaker.tryAcquirePermission();
+        if (permission == CircuitBreaker.NO_PERMISSION) {
+            pollBulkhead.release();
+            return reject("일시적으로 사용할 수 없습니다. (회로 차단)");
+        }
+        if (!pollRateLimiter.tryAcquire(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())))) {
+            pollBulkhead.release();
+            circuitBreaker.releasePermission(permission);
+            return reject("폴링 호출 한도를 초과했습니다.");
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return execute(request, permission);
+                } finally {
+                    pollBulkhead.release();
+                }
+            }, pollExecutor);
+        } catch (RejectedExecutionException e) {  // 종료 중
+            pollBulkhead.release();
+            circuitBreaker.releasePermission(permission);
+            return reject("폴링 스레드가 종료되었습니다.");
+        }
+    }
+
+    // 호출 결과를 회로 차단기에 기록합니다. 4xx 응답은 요청 문제이므로 대행사 장애로 보지 않습니다.
+    private <T> T execute(Supplier<T> request, long permission) {
+        try {
+            T response = request.get();
+            circuitBreaker.onSuccess(permission);
+            return response;
+        } catch (HttpClientErrorException e) {
+            circuitBreaker.onSuccess(permission);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure(permission);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> reject(String reason) {
+        rejectedCounter.increment();
+        return CompletableFuture.failedFuture(new DeliveryAgencyUnavailableException("배달 대행사 " + agency + ": " + reason));
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        pollExecutor.shutdownNow();
+        httpClient.close(CloseMode.GRACEFUL);  // 커넥션 풀도 함께 닫힙니다.
+    }
+}
@@ -0,0 +1,36 @@
+package com.dlnl.deliveryguard.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 대행사 코드(대문자) -> DeliveryAgencyAdapter. 등록된 DeliveryAgencyAdapter 빈을 모두 모읍니다.
+@Component
+public class DeliveryAgencyRegistry {
+
+    private final Map<String, DeliveryAgencyAdapter> adapters;
+
+    public DeliveryAgencyRegistry(List<DeliveryAgencyAdapter> adapters) {
+        this.adapters = adapters.stream()
+                .collect(Collectors.toUnmodifiableMap(adapter -> normalize(adapter.getAgency()), Function.identity()));
+    }
+
+    public Optional<DeliveryAgencyAdapter> find(String agency) {
+        return agency == null ? Optional.empty() : Optional.ofNullable(adapters.get(normalize(agency)));
+    }
+
+    public DeliveryAgencyAdapter get(String agency) {
+        return find(agency).orElseThrow(() -> new IllegalArgumentException("지원하지 않는 배달 대행사입니다: " + agency));
+    }
+
+    // 연동된 대행사 코드 (대문자)
+    public Set<String> agencies() {
+        return adapters.keySet();
+    }
+
+    private static String normalize(String agency) {
+        return agency.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dlnl.deliveryguard.service;
+
+// 회로 차단 / 동시 호출 한도 / 호출 한도 초과로 배달 대행사를 호출하지 않고 바로 실패한 경우 (503)
+public class DeliveryAgencyUnavailableException extends RuntimeException {
+
+    public DeliveryAgencyUnavailableException(String message) {
+        super(message);
+    }
+}
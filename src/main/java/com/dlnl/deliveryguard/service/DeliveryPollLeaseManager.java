@@ -0,0 +1,142 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.DeliveryPollLease;
+import com.dlnl.deliveryguard.repository.DeliveryPollLeaseRepository;
+import com.dlnl.deliveryguard.repository.DeliveryPollNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 여러 노드가 배달 상태 추적을 나눠 맡도록 shard 임대를 관리합니다.
+ * 추적 대상을 다시 읽을 때(resync)마다 heartbeat 를 남기고, 살아있는 노드 수로 나눈 몫만큼 shard 를 임대(갱신)하며 초과분은 반납합니다.
+ * 노드가 죽으면 heartbeat / 임대가 만료되어 다른 노드가 해당 shard 를 가져갑니다.
+ * 임대 만료 시각을 기억해 두고, 추적 엔진이 조회 / 반영 직전에 holdsShardOf 로 확인해서 만료된 shard 의 주문은 건드리지 않습니다.
+ */
+@Component
+@Slf4j
+public class DeliveryPollLeaseManager {
+
+    private final DeliveryPollLeaseRepository leaseRepository;
+    private final DeliveryPollNodeRepository nodeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId;
+    private final int shardCount;
+    private final Duration leaseTtl;
+
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+    private volatile Instant ownedUntil = Instant.MIN;  // ownedShards 임대 만료 시각 (DB 에 기록한 시각보다 조금 이르게 잡음)
+
+    public DeliveryPollLeaseManager(DeliveryPollLeaseRepository leaseRepository,
+                                    DeliveryPollNodeRepository nodeRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${delivery.tracking.node-id:}") String nodeId,
+                                    @Value("${delivery.tracking.shard-count:16}") int shardCount,
+                                    @Value("${delivery.tracking.lease-ttl-seconds:60}") long leaseTtlSeconds) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : defaultNodeId();
+        this.shardCount = shardCount;
+        this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
+    }
+
+    @PostConstruct
+    public void createShards() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int shardNo = 0; shardNo < shardCount; shardNo++) {
+                leaseRepository.createIfAbsent(shardNo);
+            }
+        });
+    }
+
+    // heartbeat 를 남기고 다음 resync 까지 이 노드가 맡을 shard 를 정합니다.
+    public Set<Integer> refresh() {
+        Instant validUntil = Instant.now().plus(leaseTtl);  // 트랜잭션 안에서 기록하는 lease_until 보다 이르거나 같음
+        Set<Integer> shards = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            nodeRepository.heartbeat(nodeId, now);
+            long activeNodes = Math.max(1, nodeRepository.countByHeartbeatAtAfter(now.minus(leaseTtl)));
+            int fairShare = (int) Math.ceil((double) shardCount / activeNodes);
+
+            // 이미 가진 shard 를 먼저 유지하고, 남는 몫만큼 비어 있거나 만료된 shard 를 가져옵니다.
+            List<DeliveryPollLease> claimable = new ArrayList<>(leaseRepository.findClaimable(now, nodeId));
+            claimable.sort(Comparator.comparing((DeliveryPollLease lease) -> !nodeId.equals(lease.getOwner()))
+                    .thenComparing(DeliveryPollLease::getShardNo));
+
+            Set<Integer> acquired = new TreeSet<>();
+            for (DeliveryPollLease lease : claimable) {
+                if (lease.getShardNo() >= shardCount) {
+                    continue;  // shard 수를 줄인 경우 남아있는 행
+                }
+                if (acquired.size() < fairShare) {
+                    lease.acquire(nodeId, now.plus(leaseTtl));
+                    acquired.add(lease.getShardNo());
+                } else if (nodeId.equals(lease.getOwner())) {
+                    lease.release();  // 노드가 늘어나 몫이 줄었으면 반납해서 다른 노드가 가져가도록
+                }
+            }
+            return acquired;
+        });
+
+        Set<Integer> owned = shards != null ? shards : Collections.emptySet();
+        if (!owned.equals(ownedShards)) {
+            log.info("배달 상태 추적 shard 변경 - node: {}, shards: {}", nodeId, owned);
+        }
+        ownedShards = owned;
+        ownedUntil = validUntil;
+        return owned;
+    }
+
+    // at 시점에 주문이 속한 shard 의 임대를 아직 가지고 있는지 (임대가 만료되면 다른 노드가 가져갔을 수 있음)
+    public boolean holdsShardOf(long orderId, Instant at) {
+        return at.isBefore(ownedUntil) && ownedShards.contains((int) Math.floorMod(orderId, (long) shardCount));
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int ownedShardCount() {
+        return ownedShards.size();
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        ownedShards = Collections.emptySet();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                leaseRepository.releaseAll(nodeId);
+                nodeRepository.deleteById(nodeId);
+            });
+        } catch (Exception e) {
+            log.warn("배달 상태 추적 shard 반납 실패 - node: {}", nodeId, e);  // 임대 만료로 회수됨
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,153 @@
+package com.dlnl.deliveryguard.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 배달별 다음 조회 시각을 관리하는 우선순위 큐입니다.
+ * 배차 대기처럼 빠른 반영이 필요한 상태는 짧게, 같은 상태가 오래 유지되는 배달은 점점 길게 조회 간격을 잡고,
+ * 여러 배달이 같은 시각에 몰리지 않도록 간격에 jitter 를 더합니다. 조회에 실패하면 간격을 지수적으로 늘립니다.
+ */
+public class DeliveryPollSchedule {
+
+    private static final Set<String> FAST_STATUSES = Set.of("SUBMITTED", "ASSIGNING_AGENT");  // 배차 대기
+    private static final Duration FAST_INTERVAL = Duration.ofSeconds(15);
+    private static final Duration PICKUP_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(60);
+
+    private final Duration maxInterval;
+    private final Duration initialSpread;   // 새로 추가된 배달의 첫 조회를 이 범위 안에 분산
+    private final double jitterRatio;       // 조회 간격의 ±비율
+    private final Random random;
+
+    private final Map<Long, PollState> states = new HashMap<>();
+    private final PriorityQueue<PollState> queue = new PriorityQueue<>(Comparator.comparing((PollState state) -> state.nextPollAt));
+
+    public DeliveryPollSchedule(Duration maxInterval, Duration initialSpread, double jitterRatio, Random random) {
+        this.maxInterval = maxInterval;
+        this.initialSpread = initialSpread;
+        this.jitterRatio = jitterRatio;
+        this.random = random;
+    }
+
+    // 진행 중인 배달 목록에 맞춰 새 배달은 추가하고, 끝난 배달은 제거합니다.
+    public synchronized void sync(Collection<Long> inFlightOrderIds, Instant now) {
+        Set<Long> orderIds = new HashSet<>(inFlightOrderIds);
+        states.keySet().retainAll(orderIds);
+        queue.removeIf(state -> !orderIds.contains(state.orderId));
+
+        for (Long orderId : orderIds) {
+            if (!states.containsKey(orderId)) {
+                PollState state = new PollState(orderId, now);
+                state.nextPollAt = now.plusMillis(randomMillis(initialSpread.toMillis()));
+                states.put(orderId, state);
+                queue.add(state);
+            }
+        }
+    }
+
+    // 더 이상 이 노드가 맡지 않는 배달(임대가 만료된 shard)을 뺍니다. 다시 맡게 되면 sync 에서 새 배달로 추가됩니다.
+    public synchronized void remove(Collection<Long> orderIds) {
+        states.keySet().removeAll(orderIds);
+        queue.removeIf(state -> orderIds.contains(state.orderId));
+    }
+
+    // 조회 시각이 된 배달을 꺼냅니다. 꺼낸 배달은 reschedule / rescheduleAfterFailure / requeue 로 다시 등록해야 합니다.
+    public synchronized List<Long> takeDue(Instant now) {
+        List<Long> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().nextPollAt.isAfter(now)) {
+            due.add(queue.poll().orderId);
+        }
+        return due;
+    }
+
+    // 조회 성공: 대행사 배달 상태와 그 상태가 유지된 시간으로 다음 조회 간격을 정합니다.
+    public synchronized void reschedule(Long orderId, String agencyStatus, Instant now) {
+        PollState state = states.get(orderId);
+        if (state == null) {
+            return;  // 그 사이 진행 중 목록에서 빠진 배달
+        }
+        if (!Objects.equals(state.agencyStatus, agencyStatus)) {
+            state.agencyStatus = agencyStatus;
+            state.statusSince = now;
+        }
+        state.failures = 0;
+        enqueue(state, now, interval(agencyStatus, Duration.between(state.statusSince, now)));
+    }
+
+    // 조회 실패 / 시간 초과: 기본 간격에서 실패 횟수만큼 두 배씩 늘립니다. (최대 maxInterval)
+    public synchronized void rescheduleAfterFailure(Long orderId, Instant now) {
+        PollState state = states.get(orderId);
+        if (state == null) {
+            return;
+        }
+        state.failures++;
+        Duration base = interval(state.agencyStatus, Duration.ZERO);
+        Duration backoff = base.multipliedBy(1L << Math.min(state.failures, 6));
+        enqueue(state, now, backoff.compareTo(maxInterval) > 0 ? maxInterval : backoff);
+    }
+
+    // 호출 한도 때문에 대행사를 호출하지 못한 배달: 실패로 보지 않고(실패 횟수 유지) initialSpread 안에서 곧 다시 조회합니다.
+    public synchronized void requeue(Long orderId, Instant now) {
+        PollState state = states.get(orderId);
+        if (state == null) {
+            return;
+        }
+        queue.remove(state);
+        state.nextPollAt = now.plusMillis(randomMillis(initialSpread.toMillis()));
+        queue.add(state);
+    }
+
+    // 가장 이른 다음 조회 시각 (추적 중인 배달이 없으면 null)
+    public synchronized Instant nextDueAt() {
+        PollState first = queue.peek();
+        return first != null ? first.nextPollAt : null;
+    }
+
+    public synchronized int size() {
+        return states.size();
+    }
+
+    public synchronized Instant nextPollAt(Long orderId) {
+        PollState state = states.get(orderId);
+        return state != null ? state.nextPollAt : null;
+    }
+
+    private Duration interval(String agencyStatus, Duration statusAge) {
+        if (agencyStatus != null && FAST_STATUSES.contains(agencyStatus)) {
+            return FAST_INTERVAL;
+        }
+        Duration base = "PICKING_UP".equals(agencyStatus) ? PICKUP_INTERVAL : DEFAULT_INTERVAL;
+        // 같은 상태가 오래 유지될수록 천천히 조회합니다.
+        long factor = statusAge.compareTo(Duration.ofMinutes(5)) < 0 ? 1
+                : statusAge.compareTo(Duration.ofMinutes(20)) < 0 ? 2 : 4;
+        Duration interval = base.multipliedBy(factor);
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    private void enqueue(PollState state, Instant now, Duration interval) {
+        long millis = interval.toMillis();
+        long jitter = Math.round(millis * jitterRatio * (random.nextDouble() * 2 - 1));
+        queue.remove(state);  // 꺼내지 않은 상태에서 다시 등록해도 중복되지 않도록
+        state.nextPollAt = now.plusMillis(Math.max(0, millis + jitter));
+        queue.add(state);
+    }
+
+    private long randomMillis(long bound) {
+        return bound > 0 ? (long) (random.nextDouble() * bound) : 0;
+    }
+
+    private static class PollState {
+        private final Long orderId;
+        private String agencyStatus;    // 마지막으로 조회된 대행사 배달 상태
+        private Instant statusSince;    // agencyStatus 가 처음 조회된 시각
+        private int failures;
+        private Instant nextPollAt;
+
+        private PollState(Long orderId, Instant now) {
+            this.orderId = orderId;
+            this.statusSince = now;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.Status;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// 배달 대행사(vroong) 배달 상태를 주문 상태로 변환합니다.
+public class DeliveryStatusMapper {
+
+    // 대행사 배달 상태를 반영할 수 있는(배달 진행 중인) 주문 상태
+    public static final Set<Status> IN_FLIGHT = EnumSet.of(Status.REQUEST_DELIVERY, Status.DELIVERING);
+
+    // 배달 진행 순서 (enum 선언 순서와 무관하게 이 순서로 전이 방향을 판단합니다)
+    private static final List<Status> DELIVERY_PROGRESS = List.of(Status.REQUEST_DELIVERY, Status.DELIVERING, Status.COMPLETED);
+
+    private static final Map<String, Status> STATUS_MAP = Map.of(
+            "ASSIGNING_AGENT", Status.REQUEST_DELIVERY,
+            "PICKING_UP", Status.DELIVERING,
+            "COMPLETED", Status.COMPLETED
+    );
+
+    // 주문 상태에 반영할 필요가 없는 배달 상태면 empty
+    public static Optional<Status> toOrderStatus(String deliveryStatus) {
+        return deliveryStatus == null ? Optional.empty() : Optional.ofNullable(STATUS_MAP.get(deliveryStatus));
+    }
+
+    // target 으로 바꿀 수 있는 현재 주문 상태 (배달 진행 순서상 앞선 상태만, 늦게 도착한 이전 상태로 되돌아가지 않도록)
+    public static Set<Status> allowedFrom(Status target) {
+        int targetStep = DELIVERY_PROGRESS.indexOf(target);
+        Set<Status> allowed = EnumSet.noneOf(Status.class);
+        for (Status status : IN_FLIGHT) {
+            int step = DELIVERY_PROGRESS.indexOf(status);
+            if (targetStep >= 0 && step >= 0 && step < targetStep) {
+                allowed.add(status);
+            }
+        }
+        return allowed;
+    }
+}
@@ -1,35 +1,21 @@
 package com.dlnl.deliveryguard.service;
 
-import com.dlnl.deliveryguard.domain.Order;
-import com.dlnl.deliveryguard.domain.Status;
-import com.dlnl.deliveryguard.repository.OrderRepository;
-import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.List;
 
 @Service
 public class DeliveryStatusScheduler {
 
-    private final OrderService orderService;
-    private final OrderRepository orderRepository;
+    private final DeliveryTrackingEngine deliveryTrackingEngine;
 
-    public DeliveryStatusScheduler(OrderService orderService, OrderRepository orderRepository) {
-        this.orderService = orderService;
-        this.orderRepository = orderRepository;
+    public DeliveryStatusScheduler(DeliveryTrackingEngine deliveryTrackingEngine) {
+        this.deliveryTrackingEngine = deliveryTrackingEngine;
     }
 
-    // 1분마다 배달 상태 확인
-    @Scheduled(fixedRate = 60000)
+    // 짧은 주기로 tick 하고, 실제 조회 여부는 배달별 조회 시각(DeliveryPollSchedule)으로 결정 (추적 대상 DB 조회는 resync-seconds 마다)
+    @Scheduled(fixedDelayString = "${delivery.tracking.tick-millis:5000}")
     public void checkDeliveryStatus() {
-        List<Order> orders = orderRepository.findAllByStatus(Status.REQUEST_DELIVERY);
-        orders.addAll(orderRepository.findAllByStatus(Status.DELIVERING));
-
-        for (Order order : orders) {
-            orderService.checkAndUpdateDeliveryStatus(order.getId());
-        }
+        deliveryTrackingEngine.runCycle();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.repository.OrderRepository;
+import com.dlnl.deliveryguard.repository.SearchCountCache;
+import com.dlnl.deliveryguard.repository.TrackedDelivery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 진행 중인 배달의 상태를 대행사 API로 조회해 주문 상태에 반영합니다.
+ * 배달별 조회 시각은 DeliveryPollSchedule 이 정하고, 매 tick 마다 조회 시각이 된 배달만 조회합니다.
+ * 추적 대상 목록(shard 임대 갱신 + DB 조회)은 resync-seconds 마다만 다시 읽고, 그 사이의 tick 은 메모리의 목록과 조회 시각만 확인합니다.
+ * 대행사 webhook 으로 상태를 받고 있는 배달은 조회하지 않고, 여러 노드에서는 DeliveryPollLeaseManager 가 임대한 shard 만 조회합니다.
+ * 임대는 resync 때만 갱신하므로 resync 간격 + tick 최대 시간 + tick 간격이 임대 시간보다 짧아야 하며(기동 시 확인),
+ * 조회 직전과 반영 직전에 임대가 만료된 shard 의 배달은 한 번 더 걸러서 다른 노드와 같은 주문을 동시에 다루지 않습니다.
+ * 조회는 대행사별 DeliveryAgencyAdapter 의 폴링 전용 호출 한도 안에서 동시에 수행하고, 변경된 상태는 목표 상태별로 UPDATE 한 번씩 반영합니다.
+ * 폴링 자리는 tick 시간의 절반까지 기다려서 얻고, 그래도 보내지 못한 배달은 실패로 세지 않고(backoff 없이) 곧 다시 조회합니다.
+ * tick 별 소요 시간(delivery.tracking.cycle)과 추적 대상 수(delivery.tracking.backlog)를 기록합니다.
+ */
+@Component
+@Slf4j
+public class DeliveryTrackingEngine {
+
+    private final OrderRepository orderRepository;
+    private final DeliveryAgencyRegistry deliveryAgencyRegistry;
+    private final SearchCountCache searchCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final DeliveryPollLeaseManager leaseManager;
+
+    private final Duration cycleTimeout;
+    private final Duration pushStaleAfter;
+    private final Duration resyncInterval;
+    private final DeliveryPollSchedule pollSchedule;
+
+    // 마지막으로 읽은 추적 대상 목록 (스케줄러 스레드에서만 접근)
+    private Map<Long, TrackedDelivery> deliveries = Collections.emptyMap();
+    private Instant nextResyncAt = Instant.MIN;
+
+    private final Timer cycleTimer;
+    private final Counter polledCounter;
+    private final Counter updatedCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    public DeliveryTrackingEngine(OrderRepository orderRepository,
+                                  DeliveryAgencyRegistry deliveryAgencyRegistry,
+                                  SearchCountCache searchCountCache,
+                                  TransactionTemplate transactionTemplate,
+                                  DeliveryPollLeaseManager leaseManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${delivery.tracking.cycle-timeout-seconds:20}") long cycleTimeoutSeconds,
+                                  @Value("${delivery.tracking.max-poll-interval-seconds:180}") long maxPollIntervalSeconds,
+                                  @Value("${delivery.tracking.jitter-ratio:0.1}") double jitterRatio,
+                                  @Value("${delivery.tracking.initial-spread-seconds:10}") long initialSpreadSeconds,
+                                  @Value("${delivery.tracking.push-stale-minutes:10}") long pushStaleMinutes,
+                                  @Value("${delivery.tracking.resync-seconds:10}") long resyncSeconds,
+                                  @Value("${delivery.tracking.tick-millis:5000}") long tickMillis) {
+        this.orderRepository = orderRepository;
+        this.deliveryAgencyRegistry = deliveryAgencyRegistry;
+        this.searchCountCache = searchCountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseManager = leaseManager;
+        this.cycleTimeout = Duration.ofSeconds(cycleTimeoutSeconds);
+        this.pushStaleAfter = Duration.ofMinutes(pushStaleMinutes);
+        this.resyncInterval = Duration.ofSeconds(resyncSeconds);
+        Duration renewalGap = resyncInterval.plus(cycleTimeout).plusMillis(tickMillis);
+        if (leaseManager.getLeaseTtl().compareTo(renewalGap) <= 0) {
+            throw new IllegalStateException("delivery.tracking.lease-ttl-seconds(" + leaseManager.getLeaseTtl().toSeconds() + "초)는 "
+                    + "resync-seconds + cycle-timeout-seconds + tick-millis(" + renewalGap.toMillis() + "ms)보다 길어야 합니다.");
+        }
+        this.pollSchedule = new DeliveryPollSchedule(Duration.ofSeconds(maxPollIntervalSeconds), Duration.ofSeconds(initialSpreadSeconds), jitterRatio, new Random());
+
+        this.cycleTimer = Timer.builder("delivery.tracking.cycle")
+                .description("배달 상태 추적 tick 1회 소요 시간")
+                .register(meterRegistry);
+        this.polledCounter = Counter.builder("delivery.tracking.polled")
+                .description("배달 상태 조회(대행사 API 호출) 수")
+                .register(meterRegistry);
+        this.updatedCounter = Counter.builder("delivery.tracking.updated")
+                .description("배달 상태 추적으로 변경된 주문 수")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("delivery.tracking.failed")
+                .description("배달 상태 조회 실패 / 시간 초과 수")
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("delivery.tracking.deferred")
+                .description("폴링 호출 한도 / 회로 차단으로 보내지 못하고 미룬 배달 상태 조회 수")
+                .register(meterRegistry);
+        meterRegistry.gauge("delivery.tracking.backlog", backlog);
+        meterRegistry.gauge("delivery.tracking.owned-shards", leaseManager, DeliveryPollLeaseManager::ownedShardCount);
+    }
+
+    public void runCycle() {
+        Timer.Sample sample = Timer.start();
+        try {
+            Instant now = Instant.now();
+            if (!now.isBefore(nextResyncAt)) {
+                resync(now);
+            }
+
+            // 가장 이른 조회 시각 전이면 DB / 대행사를 거치지 않고 끝냅니다.
+            Instant nextDueAt = pollSchedule.nextDueAt();
+            if (nextDueAt == null || nextDueAt.isAfter(now)) {
+                return;
+            }
+
+            List<TrackedDelivery> due = pollSchedule.takeDue(now).stream()
+                    .map(deliveries::get)
+                    .collect(Collectors.toList());
+            due = withLease(due, now);
+            if (due.isEmpty()) {
+                return;
+            }
+
+            Map<Status, List<TrackedDelivery>> changes = trackAll(due);
+
+            // 조회하는 동안 임대가 만료됐으면 다른 노드가 이미 다루고 있을 수 있으므로 반영하지 않습니다.
+            Set<Long> stillLeased = withLease(due, Instant.now()).stream()
+                    .map(TrackedDelivery::getId)
+                    .collect(Collectors.toSet());
+            changes.values().forEach(changed -> changed.removeIf(delivery -> !stillLeased.contains(delivery.getId())));
+            changes.values().removeIf(List::isEmpty);
+            int updated = apply(changes);
+
+            log.info("배달 상태 추적 완료 - 추적 중: {}, 조회: {}, 변경: {}", deliveries.size(), due.size(), updated);
+        } finally {
+            sample.stop(cycleTimer);
+        }
+    }
+
+    // 임대가 만료된 shard 의 배달을 빼고 조회 스케줄에서도 제거합니다. 뺀 배달이 있으면 다음 tick 에 바로 resync 해서 임대와 추적 대상을 다시 맞춥니다.
+    private List<TrackedDelivery> withLease(List<TrackedDelivery> candidates, Instant at) {
+        List<TrackedDelivery> leased = new ArrayList<>(candidates.size());
+        List<Long> expired = new ArrayList<>();
+        for (TrackedDelivery delivery : candidates) {
+            if (leaseManager.holdsShardOf(delivery.getId(), at)) {
+                leased.add(delivery);
+            } else {
+                expired.add(delivery.getId());
+            }
+        }
+        if (!expired.isEmpty()) {
+            pollSchedule.remove(expired);
+            nextResyncAt = Instant.MIN;
+            log.warn("shard 임대가 만료되어 배달 {}건을 이번 tick 에서 제외합니다.", expired.size());
+        }
+        return leased;
+    }
+
+    // shard 임대를 갱신하고 추적 대상 목록을 다시 읽어 조회 스케줄에 반영합니다.
+    private void resync(Instant now) {
+        // 여러 노드가 실행 중이면 이 노드가 임대한 shard 의 주문만 추적합니다.
+        Set<Integer> shards = leaseManager.refresh();
+
+        // webhook 으로 상태를 받고 있는 배달은 제외합니다. (마지막 push 이후 push-stale-minutes 가 지나면 다시 조회)
+        LocalDateTime pushStaleBefore = LocalDateTime.now().minus(pushStaleAfter);
+        List<TrackedDelivery> tracked = shards.isEmpty() ? Collections.emptyList()
+                : orderRepository.findTrackedDeliveries(DeliveryStatusMapper.IN_FLIGHT, deliveryAgencyRegistry.agencies(), pushStaleBefore, leaseManager.getShardCount(), shards);
+        deliveries = tracked.stream()
+                .collect(Collectors.toMap(TrackedDelivery::getId, delivery -> delivery));
+        backlog.set(deliveries.size());
+        pollSchedule.sync(deliveries.keySet(), now);
+        nextResyncAt = now.plus(resyncInterval);
+    }
+
+    // 배달 상태를 동시에 조회하고, 주문 상태가 바뀌어야 하는 주문을 목표 상태별로 묶습니다. 조회한 배달은 다음 조회 시각을 다시 잡습니다.
+    // 폴링 자리는 tick 시간의 절반까지만 기다려서 나중에 보낸 호출도 남은 절반 동안 응답을 기다릴 수 있게 합니다.
+    private Map<Status, List<TrackedDelivery>> trackAll(List<TrackedDelivery> deliveries) {
+        long start = System.nanoTime();
+        long submitDeadline = start + cycleTimeout.toNanos() / 2;
+        long deadline = start + cycleTimeout.toNanos();
+
+        List<DeliveryAgencyAdapter> adapters = new ArrayList<>(deliveries.size());
+        List<Future<String>> futures = new ArrayList<>(deliveries.size());
+        for (TrackedDelivery delivery : deliveries) {
+            DeliveryAgencyAdapter adapter = deliveryAgencyRegistry.get(delivery.getDeliveryAgency());
+            adapters.add(adapter);
+            futures.add(track(adapter, delivery, Duration.ofNanos(Math.max(0, submitDeadline - System.nanoTime()))));
+        }
+
+        Map<Status, List<TrackedDelivery>> changes = new EnumMap<>(Status.class);
+        for (int i = 0; i < deliveries.size(); i++) {
+            TrackedDelivery delivery = deliveries.get(i);
+            Future<String> future = futures.get(i);
+            try {
+                String agencyStatus = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                polledCounter.increment();
+                pollSchedule.reschedule(delivery.getId(), agencyStatus, Instant.now());
+                adapters.get(i).toOrderStatus(agencyStatus)
+                        .filter(status -> status != delivery.getStatus())
+                        .ifPresent(status -> changes.computeIfAbsent(status, key -> new ArrayList<>()).add(delivery));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                polledCounter.increment();
+                pollSchedule.rescheduleAfterFailure(delivery.getId(), Instant.now());
+                failedCounter.increment();
+                log.warn("Order ID: {} - 배달 상태 조회 시간 초과", delivery.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // 남은 배달도 다음 조회 시각을 잡아둬야 스케줄에서 빠지지 않습니다.
+                for (int j = i; j < deliveries.size(); j++) {
+                    futures.get(j).cancel(true);
+                    pollSchedule.rescheduleAfterFailure(deliveries.get(j).getId(), Instant.now());
+                }
+                break;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DeliveryAgencyUnavailableException) {
+                    // 대행사를 호출하지 않았으므로 대행사 장애가 아닙니다. 실패 횟수를 늘리지 않고 곧 다시 조회합니다.
+                    pollSchedule.requeue(delivery.getId(), Instant.now());
+                    deferredCounter.increment();
+                    log.debug("Order ID: {} - 배달 상태 조회를 미룹니다: {}", delivery.getId(), e.getCause().getMessage());
+                    continue;
+                }
+                polledCounter.increment();
+                pollSchedule.rescheduleAfterFailure(delivery.getId(), Instant.now());
+                failedCounter.increment();
+                log.warn("Order ID: {} - 배달 상태 조회 실패: {}", delivery.getId(), e.getCause().getMessage());
+            }
+        }
+        return changes;
+    }
+
+    // 대행사 배달 상태 (응답이 없으면 null)
+    private CompletableFuture<String> track(DeliveryAgencyAdapter adapter, TrackedDelivery delivery, Duration maxWait) {
+        return adapter.pollDelivery(delivery.getDeliveryId(), maxWait).thenApply(response -> {
+            if (response == null) {
+                return null;
+            }
+            log.debug("Order ID: {} - Current Status: {}", delivery.getId(), response.getStatus());
+            return response.getStatus();
+        });
+    }
+
+    // 목표 상태별로 UPDATE 한 번씩 실행합니다. 배달 진행 순서상 앞선 상태인 주문만 바꿔서, 늦게 받은 조회 결과가
+    // webhook 으로 먼저 반영된 상태를 되돌리지 않습니다. (그 사이 취소 등으로 진행 중 상태가 아니게 된 주문도 제외)
+    private int apply(Map<Status, List<TrackedDelivery>> changes) {
+        int updated = 0;
+        Set<Long> storeIds = new HashSet<>();
+        for (Map.Entry<Status, List<TrackedDelivery>> change : changes.entrySet()) {
+            Set<Status> allowed = DeliveryStatusMapper.allowedFrom(change.getKey());
+            if (allowed.isEmpty()) {
+                continue;
+            }
+            List<Long> orderIds = change.getValue().stream()
+                    .map(TrackedDelivery::getId)
+                    .collect(Collectors.toList());
+            Integer count = transactionTemplate.execute(status ->
+                    orderRepository.transitionStatuses(orderIds, allowed, change.getKey()));
+            updated += count != null ? count : 0;
+            change.getValue().forEach(delivery -> storeIds.add(delivery.getStoreId()));
+        }
+        storeIds.forEach(searchCountCache::evictStore);
+        updatedCounter.increment(updated);
+        return updated;
+    }
+}
@@ -0,0 +1,138 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.repository.OrderRepository;
+import com.dlnl.deliveryguard.repository.SearchCountCache;
+import com.dlnl.deliveryguard.repository.TrackedDelivery;
+import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 배달 대행사의 배달 상태 webhook 을 처리합니다.
+ * 요청은 "timestamp.body" 의 HMAC-SHA256 서명으로 인증하고, 같은 (배달 ID, 상태) 알림은 한 번만 반영합니다.
+ * 상태 변환은 폴링과 같이 주문 대행사의 DeliveryAgencyAdapter 를 사용하며, 수신 시각을 기록해 해당 배달의 폴링을 멈춥니다.
+ */
+@Service
+@Slf4j
+public class DeliveryWebhookService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final OrderRepository orderRepository;
+    private final SearchCountCache searchCountCache;
+    private final DeliveryAgencyRegistry deliveryAgencyRegistry;
+
+    private final byte[] secret;
+    private final Duration allowedClockSkew;
+    private final Cache<String, Boolean> receivedEvents;
+
+    public DeliveryWebhookService(OrderRepository orderRepository,
+                                  SearchCountCache searchCountCache,
+                                  DeliveryAgencyRegistry deliveryAgencyRegistry,
+                                  @Value("${delivery.webhook.secret:}") String secret,
+                                  @Value("${delivery.webhook.allowed-skew-seconds:300}") long allowedSkewSeconds,
+                                  @Value("${delivery.webhook.dedup-ttl-minutes:30}") long dedupTtlMinutes) {
+        this.orderRepository = orderRepository;
+        this.searchCountCache = searchCountCache;
+        this.deliveryAgencyRegistry = deliveryAgencyRegistry;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.allowedClockSkew = Duration.ofSeconds(allowedSkewSeconds);
+        this.receivedEvents = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(dedupTtlMinutes))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    // 서명 확인 (secret 이 설정되지 않았으면 모든 요청을 거부)
+    public boolean verifySignature(String timestamp, String signature, String body) {
+        if (secret.length == 0 || timestamp == null || signature == null || body == null) {
+            return false;
+        }
+        try {
+            Instant sentAt = Instant.ofEpochSecond(Long.parseLong(timestamp));
+            if (Duration.between(sentAt, Instant.now()).abs().compareTo(allowedClockSkew) > 0) {
+                return false;  // 오래된 요청 재전송 방지
+            }
+
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            byte[] expected = mac.doFinal((timestamp + "." + body).getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(expected, HexFormat.of().parseHex(signature));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {  // NumberFormatException 포함
+            return false;
+        }
+    }
+
+    // 배달 상태 알림을 반영합니다. 중복 알림이거나 모르는 배달이면 false
+    // deliveryAgency: 대행사별 webhook 주소로 받은 경우의 대행사 코드 (없으면 null). 대행사 없이 받은 배달 ID 가 여러 대행사의 주문과 겹치면
+    // 어느 주문인지 알 수 없으므로 반영하지 않습니다. (대행사가 재전송하지 않도록 오류로 처리하지 않음)
+    @Transactional
+    public boolean handleStatusCallback(String deliveryAgency, TrackDeliveryResponse callback) {
+        String agency = StringUtils.hasText(deliveryAgency) ? deliveryAgency.toUpperCase(Locale.ROOT) : null;
+        String eventKey = agency + ":" + callback.getDeliveryId() + ":" + callback.getStatus();
+        if (receivedEvents.asMap().putIfAbsent(eventKey, Boolean.TRUE) != null) {
+            log.debug("Delivery ID: {} - 중복 webhook 무시 ({})", callback.getDeliveryId(), callback.getStatus());
+            return false;
+        }
+        forgetOnRollback(eventKey);  // 반영에 실패하면 대행사 재전송을 다시 받을 수 있도록
+
+        List<TrackedDelivery> found = orderRepository.findTrackedDeliveriesByDeliveryId(agency, callback.getDeliveryId());
+        if (found.isEmpty()) {
+            log.warn("Delivery ID: {} - 해당 배달의 주문이 없습니다. (대행사: {})", callback.getDeliveryId(), agency);
+            return false;
+        }
+        if (found.size() > 1) {
+            log.warn("Delivery ID: {} - 같은 배달 ID 의 주문이 {}건이라 반영하지 않습니다. (대행사: {}, 대행사별 webhook 주소를 사용해야 합니다)",
+                    callback.getDeliveryId(), found.size(), agency);
+            return false;
+        }
+        TrackedDelivery delivery = found.get(0);
+
+        orderRepository.markDeliveryPushed(delivery.getId(), LocalDateTime.now());
+        deliveryAgencyRegistry.find(delivery.getDeliveryAgency())
+                .flatMap(adapter -> adapter.toOrderStatus(callback.getStatus()))
+                .filter(status -> status != delivery.getStatus())
+                .ifPresent(status -> {
+                    Set<Status> allowed = DeliveryStatusMapper.allowedFrom(status);
+                    if (!allowed.isEmpty() && orderRepository.transitionStatuses(List.of(delivery.getId()), allowed, status) > 0) {
+                        searchCountCache.evictStore(delivery.getStoreId());
+                        log.info("Order ID: {} - Updated to {} (webhook)", delivery.getId(), status);
+                    }
+                });
+        return true;
+    }
+
+    private void forgetOnRollback(String eventKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        receivedEvents.invalidate(eventKey);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dlnl.deliveryguard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * 로그인 시도를 IP / 로그인 ID 별 토큰 버킷으로 제한합니다.
+ * IP 버킷은 모든 시도에서 쓰는 해싱 전 관문이고, 로그인 ID 버킷은 실패한 시도(recordFailure)에서만 써서
+ * 다른 사람이 틀린 비밀번호를 계속 보내지 않는 한 계정 주인의 정상 로그인은 막히지 않습니다.
+ * BCrypt 해싱 전에 걸러내므로, 무차별 대입 시도가 해싱 스레드 풀을 차지하지 못합니다.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+
+    private final double ipPermitsPerSecond;
+    private final int ipBurst;
+    private final double loginPermitsPerSecond;
+    private final int loginBurst;
+
+    private final Cache<String, TokenBucketRateLimiter> ipLimiters;
+    private final Cache<String, TokenBucketRateLimiter> loginLimiters;
+
+    private final Counter ipThrottledCounter;
+    private final Counter loginThrottledCounter;
+
+    public LoginAttemptLimiter(MeterRegistry meterRegistry,
+                               @Value("${auth.login-limit.per-ip-per-minute:30}") int perIpPerMinute,
+                               @Value("${auth.login-limit.per-ip-burst:10}") int ipBurst,
+                               @Value("${auth.login-limit.per-login-per-minute:10}") int perLoginPerMinute,
+                               @Value("${auth.login-limit.per-login-burst:5}") int loginBurst,
+                               @Value("${auth.login-limit.max-keys:100000}") long maxKeys) {
+        this.ipPermitsPerSecond = perIpPerMinute / 60.0;
+        this.ipBurst = ipBurst;
+        this.loginPermitsPerSecond = perLoginPerMinute / 60.0;
+        this.loginBurst = loginBurst;
+        this.ipLimiters = Caffeine.newBuilder().expireAfterAccess(IDLE_EXPIRY).maximumSize(maxKeys).build();
+        this.loginLimiters = Caffeine.newBuilder().expireAfterAccess(IDLE_EXPIRY).maximumSize(maxKeys).build();
+        this.ipThrottledCounter = Counter.builder("auth.login.throttled")
+                .description("호출 한도를 넘어 거절된 로그인 시도 수")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.loginThrottledCounter = Counter.builder("auth.login.throttled")
+                .description("호출 한도를 넘어 거절된 로그인 시도 수")
+                .tag("key", "login")
+                .register(meterRegistry);
+    }
+
+    // 기다리지 않고 바로 판단합니다. IP 한도를 먼저 확인해 한 IP 가 여러 계정을 시도하는 경우도 막고,
+    // 로그인 ID 는 실패가 한도만큼 쌓였는지만 확인합니다. (토큰을 쓰지 않음)
+    public boolean tryAcquire(String ip, String loginId) {
+        if (StringUtils.hasText(ip)
+                && !ipLimiters.get(ip, key -> new TokenBucketRateLimiter(ipPermitsPerSecond, ipBurst)).tryAcquire(Duration.ZERO)) {
+            ipThrottledCounter.increment();
+            return false;
+        }
+        TokenBucketRateLimiter loginLimiter = StringUtils.hasText(loginId) ? loginLimiters.getIfPresent(loginId.toLowerCase()) : null;
+        if (loginLimiter != null && !loginLimiter.hasPermit()) {
+            loginThrottledCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // 로그인 실패(없는 ID / 비밀번호 불일치) 시 로그인 ID 버킷의 토큰을 씁니다.
+    public void recordFailure(String loginId) {
+        if (StringUtils.hasText(loginId)) {
+            loginLimiters.get(loginId.toLowerCase(), key -> new TokenBucketRateLimiter(loginPermitsPerSecond, loginBurst)).tryAcquire(Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.dlnl.deliveryguard.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * mail_outbox 에 저장하는 메일 본문을 AES-GCM 으로 암호화합니다.
+ * 임시 비밀번호가 든 본문이 재시도 동안 DB(백업, 복제본 포함)에 평문으로 남지 않도록, 저장할 때 암호화하고 발송 직전에만 복호화합니다.
+ * 저장 형식은 "enc:v1:" + Base64(IV 12바이트 + 암호문 + 태그) 이며, 접두사가 없는 본문은 암호화 이전에 저장된 행으로 보고 그대로 돌려줍니다.
+ */
+@Component
+public class MailBodyCipher {
+
+    private static final String PREFIX = "enc:v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    // key: Base64 로 인코딩한 16, 24, 32바이트 AES 키
+    public MailBodyCipher(@Value("${mail.outbox.encryption-key}") String key) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(key.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("mail.outbox.encryption-key 는 Base64 로 인코딩한 AES 키여야 합니다.", e);
+        }
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            throw new IllegalStateException("mail.outbox.encryption-key 는 16, 24, 32바이트 AES 키여야 합니다.");
+        }
+        this.key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String plainText) {
+        if (plainText == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+            return PREFIX + Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + encrypted.length)
+                    .put(iv)
+                    .put(encrypted)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("메일 본문을 암호화하지 못했습니다.", e);
+        }
+    }
+
+    // 키가 바뀌었거나 본문이 변조되었으면 GeneralSecurityException
+    public String decrypt(String stored) throws GeneralSecurityException {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new GeneralSecurityException("메일 본문 형식이 올바르지 않습니다.", e);
+        }
+        if (data.length <= IV_LENGTH) {
+            throw new GeneralSecurityException("메일 본문 형식이 올바르지 않습니다.");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+        return new String(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH), StandardCharsets.UTF_8);
+    }
+}
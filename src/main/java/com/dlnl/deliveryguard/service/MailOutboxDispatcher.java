@@ -0,0 +1,189 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.MailOutbox;
+import com.dlnl.deliveryguard.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * mail_outbox 에 쌓인 메일을 발송합니다.
+ * 짧은 트랜잭션에서 발송할 메일을 SKIP LOCKED 로 가져와 임대(nextAttemptAt = 임대 만료 시각)하고, 트랜잭션 밖에서
+ * 한 번의 SMTP 연결로 묶어 보냅니다. 보낸 메일은 삭제하고, 실패한 메일은 지수 backoff 후 다시 시도하다가 maxAttempts 를 넘으면 FAILED 로 남깁니다.
+ * 발송 도중 노드가 죽으면 임대가 끝난 뒤 다른 노드가 다시 보냅니다.
+ * 암호화해 저장한 본문은 메시지를 만들 때만 복호화하며, 복호화에 실패한 메일(키 변경, 변조)은 다시 시도하지 않습니다.
+ */
+@Component
+@Slf4j
+public class MailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final MailBodyCipher mailBodyCipher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender mailSender,
+                                MailBodyCipher mailBodyCipher,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${mail.outbox.batch-size:50}") int batchSize,
+                                @Value("${mail.outbox.lease-seconds:120}") long leaseSeconds,
+                                @Value("${mail.outbox.max-attempts:6}") int maxAttempts,
+                                @Value("${mail.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+                                @Value("${mail.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.mailBodyCipher = mailBodyCipher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+        this.sentCounter = Counter.builder("mail.outbox.sent")
+                .description("발송한 메일 수")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.outbox.retried")
+                .description("발송에 실패해 다시 시도할 메일 수")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed")
+                .description("발송을 포기한 메일 수")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-millis:2000}")
+    public void dispatch() {
+        List<MailOutbox> claimed;
+        do {
+            claimed = claimBatch();
+            if (!claimed.isEmpty()) {
+                send(claimed);
+            }
+        } while (claimed.size() == batchSize);  // 밀린 메일이 있으면 바로 다음 묶음
+    }
+
+    private List<MailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MailOutbox> mails = mailOutboxRepository.findDispatchable(now, PageRequest.of(0, batchSize));
+            mails.forEach(mail -> mail.claim(now.plus(lease)));
+            return mails;
+        });
+    }
+
+    private void send(List<MailOutbox> mails) {
+        Map<Long, String> failures = new HashMap<>();
+        Set<Long> permanentFailures = new HashSet<>();
+        Map<MimeMessage, Long> messages = new LinkedHashMap<>();
+
+        for (MailOutbox mail : mails) {
+            try {
+                messages.put(toMimeMessage(mail), mail.getId());
+            } catch (MessagingException | GeneralSecurityException e) {
+                // 주소 형식 오류, 복호화 실패 등은 다시 시도해도 실패하므로 바로 포기합니다.
+                failures.put(mail.getId(), e.getMessage());
+                permanentFailures.add(mail.getId());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));  // 한 번의 SMTP 연결로 발송
+            } catch (MailSendException e) {
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                if (failedMessages.isEmpty()) {
+                    messages.values().forEach(id -> failures.put(id, e.getMessage()));
+                } else {
+                    failedMessages.forEach((message, cause) -> failures.put(messages.get(message), cause.getMessage()));
+                }
+            } catch (MailException e) {
+                messages.values().forEach(id -> failures.put(id, e.getMessage()));
+            }
+        }
+
+        complete(mails, failures, permanentFailures);
+    }
+
+    private void complete(List<MailOutbox> mails, Map<Long, String> failures, Set<Long> permanentFailures) {
+        List<Long> sentIds = new ArrayList<>();
+        for (MailOutbox mail : mails) {
+            if (!failures.containsKey(mail.getId())) {
+                sentIds.add(mail.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                mailOutboxRepository.deleteAllByIdInBatch(sentIds);
+            }
+            if (!failures.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                for (MailOutbox mail : mailOutboxRepository.findAllById(failures.keySet())) {
+                    String error = truncate(failures.get(mail.getId()));
+                    if (permanentFailures.contains(mail.getId()) || mail.getAttempts() >= maxAttempts) {
+                        mail.fail(error);
+                        failedCounter.increment();
+                        log.warn("메일 발송 실패 (id={}, 시도 {}회): {}", mail.getId(), mail.getAttempts(), error);
+                    } else {
+                        mail.retryAt(now.plus(backoff(mail.getAttempts())), error);
+                        retriedCounter.increment();
+                    }
+                }
+            }
+        });
+        sentCounter.increment(sentIds.size());
+    }
+
+    private MimeMessage toMimeMessage(MailOutbox mail) throws MessagingException, GeneralSecurityException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mailBodyCipher.decrypt(mail.getHtmlBody()), true);
+        return message;
+    }
+
+    // backoffBase * 2^(시도 횟수 - 1), 최대 backoffMax
+    private Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = backoffBase.multipliedBy(1L << exponent);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
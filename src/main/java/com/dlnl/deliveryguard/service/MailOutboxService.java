@@ -0,0 +1,31 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.MailOutbox;
+import com.dlnl.deliveryguard.repository.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+// 메일을 바로 보내지 않고 호출한 트랜잭션 안에서 outbox 에 저장합니다. 트랜잭션이 롤백되면 메일도 나가지 않습니다.
+// 본문은 임시 비밀번호 등이 들어 있을 수 있으므로 암호화해서 저장합니다.
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailBodyCipher mailBodyCipher;
+
+    public void enqueue(String recipient, String subject, String htmlBody) {
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.save(MailOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .htmlBody(mailBodyCipher.encrypt(htmlBody))
+                .status(MailOutbox.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
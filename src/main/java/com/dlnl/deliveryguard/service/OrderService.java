@@ -1,5 +1,6 @@
 package com.dlnl.deliveryguard.service;
 
+import com.dlnl.deliveryguard.config.AddressUtil;
 import com.dlnl.deliveryguard.config.SecurityUtil;
 import com.dlnl.deliveryguard.domain.*;
 import com.dlnl.deliveryguard.repository.*;
@@ -9,15 +10,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import java.sql.Time;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,27 +32,36 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
+    // 상태 전이별로 허용되는 현재 상태
+    private static final Set<Status> ACCEPTABLE = EnumSet.of(Status.WAITING);
+    private static final Set<Status> REJECTABLE = EnumSet.of(Status.WAITING);
+    private static final Set<Status> CALLABLE = EnumSet.of(Status.PROCESSING, Status.CUSTOMER_CALL);
+    private static final Set<Status> CANCELABLE = EnumSet.of(Status.WAITING, Status.PROCESSING, Status.REQUEST_DELIVERY, Status.CUSTOMER_CALL);
+    private static final Set<Status> RIDER_REQUESTABLE = EnumSet.of(Status.PROCESSING);
+
+    private static final int MAX_BULK_ORDERS = 500;   // 대량 등록 1회 최대 주문 수
+
     private final OrderRepository orderRepository;
     private final MenuRepository menuRepository;
     private final CustomerRepository customerRepository;
     private final AddressRepository addressRepository;
-    private final OrderMenuRepository orderMenuRepository;
+    private final StoreRepository storeRepository;
+    private final MenuCatalog menuCatalog;
+
+    private final DeliveryAgencyRegistry deliveryAgencyRegistry;
 
-    private final DeliveryPlatformService deliveryPlatformService;
+    private final SearchCountCache searchCountCache;
+
+    private final TransactionTemplate transactionTemplate;
 
     private final PagedResourcesAssembler<OrderListResponse> pagedResourcesAssembler;
 
 
-    public OrderDetailResponse getOrderDetail(Long orderId, User user) {
+    @Transactional(readOnly = true)
+    public OrderDetailResponse getOrderDetail(Long orderId, UserSnapshot user) {
         try {
-            // 주문을 가져옵니다.
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new IllegalArgumentException("해당 주문을 찾을 수 없습니다. ID: " + orderId));
-
-            // 현재 사용자가 주문이 속한 가게의 주인인지 확인합니다.
-            if (!order.getStore().getOwner().getId().equals(user.getId())) {
-                throw new IllegalArgumentException("해당 주문에 접근할 권한이 없습니다.");
-            }
+            // 현재 사용자가 주인인 가게의 주문만, 주소 / 메뉴와 함께 한 번에 가져옵니다.
+            Order order = findOwnedOrderDetail(orderId, user);
 
             // 주문 상세 정보를 DTO로 변환하여 반환합니다.
             return OrderDetailResponse.builder()
@@ -78,169 +94,279 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderListResponse> searchOrders(OrderSearchCriteria criteria, Pageable pageable, User user) {
-        Long storeId = user.getStore().getId();
+    public Page<OrderListResponse> searchOrders(OrderSearchCriteria criteria, Pageable pageable, UserSnapshot user) {
+        Long storeId = storeIdOf(user);
         return orderRepository.searchOrders(criteria, pageable, storeId);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<OrderListResponse> searchOrdersSlice(OrderSearchCriteria criteria, Pageable pageable, UserSnapshot user) {
+        Long storeId = storeIdOf(user);
+        return orderRepository.searchOrdersSlice(criteria, pageable, storeId);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<OrderListResponse> searchOrdersAfter(OrderSearchCriteria criteria, OrderCursor cursor, int size, UserSnapshot user) {
+        Long storeId = storeIdOf(user);
+        return orderRepository.searchOrdersAfter(criteria, cursor, size, storeId);
+    }
+
+    @Transactional
+    public void createOrder(OrderCreateRequest orderCreateRequest, UserSnapshot user) {
+        createOrders(List.of(orderCreateRequest), user);
+    }
+
+    // 여러 주문을 한 번에 등록합니다. 고객 / 주소 / 메뉴는 IN 조회로 한 번에 확인하고, 주문 / 주문 메뉴는 flush 시 JDBC batch insert 됩니다.
     @Transactional
-    public void createOrder(OrderCreateRequest orderCreateRequest, User user) {
+    public BulkOrderCreateResponse createOrders(List<OrderCreateRequest> requests, UserSnapshot user) {
         // 현재 사용자 가게 확인
-        Store store = user.getStore();
-        if (store == null) {
+        if (!user.hasStore()) {
             throw new IllegalStateException("사용자는 가게를 소유하지 않습니다.");
         }
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("등록할 주문이 없습니다.");
+        }
+        if (requests.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("한 번에 등록할 수 있는 주문은 최대 " + MAX_BULK_ORDERS + "건입니다.");
+        }
 
-        // 고객 정보 확인 또는 기본 정보로 고객 생성
-        Customer customer = customerRepository.findByPhoneNumber(orderCreateRequest.getCustomerPhoneNumber())
-                .orElseGet(() -> {
-                    // 필요한 정보만으로 고객을 생성
-                    Customer newCustomer = Customer.builder()
-                            .phoneNumber(orderCreateRequest.getCustomerPhoneNumber())
-                            .store(store)  // 가게와 연결
-                            .nickname(orderCreateRequest.getCustomerPhoneNumber())  // 고객이름이 없을 경우 전화번호로 대체
-                            .customerID("CUST_" + System.currentTimeMillis())  // 기본 ID 생성
-                            .build();
-                    return customerRepository.save(newCustomer);
-                });
-
-        // 고객의 주소 처리 (고객의 기존 주소가 없다면 새로 추가)
-        Address address = customer.getAddresses().stream()
-                .filter(a -> a.getDestAddress().equals(orderCreateRequest.getAddress()))
-                .findFirst()
-                .orElseGet(() -> {
-                    // 새로운 주소 생성 및 저장
-                    Address newAddress = Address.builder()
-                            .destAddress(orderCreateRequest.getAddress())
-                            .customer(customer)
-                            .build();
-                    return addressRepository.save(newAddress);
-                });
+        Store store = storeRepository.getReferenceById(user.getStoreId());  // 프록시 참조 (조회 쿼리 없음)
+        Map<String, MenuCatalog.MenuEntry> menusByName = findMenusByName(requests);
+        Map<String, Customer> customersByPhone = findOrCreateCustomers(requests, store);
+        Map<Long, Map<String, Address>> addressesByCustomer = findOrCreateAddresses(requests, customersByPhone);
+
+        // 새로운 주문 생성 (주문 메뉴는 cascade 로 함께 저장)
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (OrderCreateRequest request : requests) {
+            Customer customer = customersByPhone.get(request.getCustomerPhoneNumber());
+            Order order = Order.builder()
+                    .orderDateTime(request.getOrderDateTime())
+                    .orderNumber(request.getOrderNumber())
+                    .orderPlatform(request.getOrderPlatform())
+                    .paymentMethod(request.getPaymentMethod())
+                    .orderType(request.getOrderType())
+                    .status(request.getStatus())
+                    .paymentAmount(request.getPaymentAmount())
+                    .CustomerPhoneNumber(request.getCustomerPhoneNumber())  // 전화번호 검색 대상
+                    .store(store)
+                    .address(addressesByCustomer.get(customer.getId()).get(AddressUtil.fingerprint(request.getAddress())))  // 주소 추가
+                    .receiptData(request.getReceiptData())
+                    .deliveryId(request.getDeliveryId())
+                    .customer(customer)  // 고객 연결
+                    .contactless(false).build();    // todo : 컨택리스 여부도 입력으로 받아야하도록 수정.
+            for (OrderCreateRequest.MenuItem menuItem : request.getMenus()) {
+                Menu menu = menuRepository.getReferenceById(menusByName.get(menuItem.getMenuName()).getId());  // 프록시 참조 (조회 쿼리 없음)
+                order.addOrderMenu(menu, menuItem.getQuantity());
+            }
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
 
-        // 새로운 주문 생성
-        Order newOrder = Order.builder()
-                .orderDateTime(orderCreateRequest.getOrderDateTime())
-                .orderNumber(orderCreateRequest.getOrderNumber())
-                .orderPlatform(orderCreateRequest.getOrderPlatform())
-                .paymentMethod(orderCreateRequest.getPaymentMethod())
-                .orderType(orderCreateRequest.getOrderType())
-                .status(orderCreateRequest.getStatus())
-                .paymentAmount(orderCreateRequest.getPaymentAmount())
-                .store(store)
-                .address(address)  // 주소 추가
-                .receiptData(orderCreateRequest.getReceiptData())
-                .deliveryId(orderCreateRequest.getDeliveryId())
-                .customer(customer)  // 고객 연결
-                .contactless(false).build();    // todo : 컨택리스 여부도 입력으로 받아야하도록 수정.
-        orderRepository.save(newOrder);
-        // 메뉴 항목 추가
-        List<OrderMenu> orderMenus = orderCreateRequest.getMenus().stream()
-                .map(menuItem -> {
-                    Menu menu = menuRepository.findByName(menuItem.getMenuName())
-                            .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 메뉴입니다: " + menuItem.getMenuName()));
-                    // OrderMenu 생성 및 저장
-                    OrderMenu orderMenu = OrderMenu.builder()
-                            .order(newOrder)
-                            .menu(menu)
-                            .quantity(menuItem.getQuantity())
-                            .build();
-                    return orderMenuRepository.save(orderMenu);  // OrderMenu 저장
-                }).collect(Collectors.toList());
+        searchCountCache.evictStore(store.getId());
 
+        return BulkOrderCreateResponse.builder()
+                .createdCount(orders.size())
+                .orderIds(orders.stream().map(Order::getId).collect(Collectors.toList()))
+                .build();
     }
 
-    @Transactional
-    public void cancelOrder(Long orderId, String cancelReason, User user) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다. ID: " + orderId));
-
-        if (!order.getStore().getOwner().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("해당 주문에 대한 접근 권한이 없습니다.");
+    // 메뉴 카탈로그 캐시에서 확인하고, 캐시에 없는 메뉴만 한 번에 조회합니다.
+    private Map<String, MenuCatalog.MenuEntry> findMenusByName(List<OrderCreateRequest> requests) {
+        Set<String> menuNames = new HashSet<>();
+        for (OrderCreateRequest request : requests) {
+            for (OrderCreateRequest.MenuItem menuItem : request.getMenus()) {
+                if (menuItem.getMenuName() == null) {
+                    throw new IllegalArgumentException("메뉴명이 비어 있습니다. 주문 번호: " + request.getOrderNumber());
+                }
+                menuNames.add(menuItem.getMenuName());
+            }
         }
 
-        // 배달 플랫폼이 'vroong'인 경우만 배달 취소 API 호출
-        if ("vroong".equalsIgnoreCase(order.getDeliveryAgency())) {
-            String deliveryId = getDeliveryIdByOrderId(orderId);
-            deliveryPlatformService.cancelDelivery(deliveryId);
-        }
+        Map<String, MenuCatalog.MenuEntry> menusByName = menuCatalog.findByNames(menuNames);
 
-        order.updateStatus(Status.CANCELED);
-        order.updateCancelReason(cancelReason);
-        orderRepository.save(order);
+        List<String> missing = menuNames.stream()
+                .filter(name -> !menusByName.containsKey(name))
+                .sorted()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("존재하지 않는 메뉴입니다: " + String.join(", ", missing));
+        }
+        return menusByName;
     }
 
-    public String getDeliveryIdByOrderId(Long orderId) {
-        return orderRepository.findById(orderId)
-                .map(Order::getDeliveryId)
-                .orElseThrow(() -> new IllegalArgumentException("배달 ID를 찾을 수 없습니다. 주문 ID: " + orderId));
+    // 고객 정보 확인 또는 기본 정보로 고객 생성 (가게 단위로 전화번호 조회)
+    private Map<String, Customer> findOrCreateCustomers(List<OrderCreateRequest> requests, Store store) {
+        Set<String> phoneNumbers = requests.stream()
+                .map(OrderCreateRequest::getCustomerPhoneNumber)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, Customer> customersByPhone = new HashMap<>();
+        for (Customer customer : customerRepository.findByStoreIdAndPhoneNumberIn(store.getId(), phoneNumbers)) {
+            customersByPhone.putIfAbsent(customer.getPhoneNumber(), customer);
+        }
+
+        List<Customer> newCustomers = new ArrayList<>();
+        for (String phoneNumber : phoneNumbers) {
+            if (!customersByPhone.containsKey(phoneNumber)) {
+                // 필요한 정보만으로 고객을 생성
+                Customer newCustomer = Customer.builder()
+                        .phoneNumber(phoneNumber)
+                        .store(store)  // 가게와 연결
+                        .nickname(phoneNumber)  // 고객이름이 없을 경우 전화번호로 대체
+                        .customerID("CUST_" + System.currentTimeMillis() + "_" + newCustomers.size())  // 기본 ID 생성
+                        .build();
+                newCustomers.add(newCustomer);
+                customersByPhone.put(phoneNumber, newCustomer);
+            }
+        }
+        customerRepository.saveAll(newCustomers);
+        return customersByPhone;
     }
 
-    @Transactional
-    public void callCustomer(Long orderId, User user) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다. ID: " + orderId));
+    // 고객의 주소 처리 (고객의 기존 주소가 없다면 새로 추가)
+    private Map<Long, Map<String, Address>> findOrCreateAddresses(List<OrderCreateRequest> requests, Map<String, Customer> customersByPhone) {
+        Set<Long> customerIds = customersByPhone.values().stream()
+                .map(Customer::getId)
+                .collect(Collectors.toSet());
+        Set<String> fingerprints = requests.stream()
+                .map(request -> AddressUtil.fingerprint(request.getAddress()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        // 고객의 주소 전체 대신, 요청에 포함된 주소 지문만 (customer_id, address_fingerprint) 인덱스로 조회합니다.
+        Map<Long, Map<String, Address>> addressesByCustomer = new HashMap<>();
+        if (!fingerprints.isEmpty()) {
+            for (Address address : addressRepository.findByCustomerIdInAndFingerprintIn(customerIds, fingerprints)) {
+                addressesByCustomer.computeIfAbsent(address.getCustomer().getId(), id -> new HashMap<>())
+                        .put(address.getFingerprint(), address);
+            }
+        }
 
+        List<Address> newAddresses = new ArrayList<>();
+        for (OrderCreateRequest request : requests) {
+            Customer customer = customersByPhone.get(request.getCustomerPhoneNumber());
+            String fingerprint = AddressUtil.fingerprint(request.getAddress());
+            Map<String, Address> addresses = addressesByCustomer.computeIfAbsent(customer.getId(), id -> new HashMap<>());
+            if (!addresses.containsKey(fingerprint)) {
+                // 새로운 주소 생성 및 저장
+                Address newAddress = Address.builder()
+                        .destAddress(request.getAddress())
+                        .fingerprint(fingerprint)
+                        .customer(customer)
+                        .build();
+                newAddresses.add(newAddress);
+                addresses.put(fingerprint, newAddress);
+            }
+        }
+        addressRepository.saveAll(newAddresses);
+        return addressesByCustomer;
+    }
 
-        if (!order.getStore().getOwner().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("해당 주문에 접근할 권한이 없습니다.");
+    /**
+     * 주문 취소. 조건부 UPDATE 로 주문을 먼저 취소해 커밋하고, 대행사에 접수된 배달은 커밋 이후에 취소를 요청합니다.
+     * (대행사 배달만 취소되고 주문은 살아 있는 경우가 없고, 대행사 응답을 기다리는 동안 DB 연결을 잡고 있지 않음)
+     */
+    public void cancelOrder(Long orderId, String cancelReason, UserSnapshot user) {
+        Long storeId = storeIdOf(user);
+        Order canceled = transactionTemplate.execute(status -> {
+            requireTransitioned(orderRepository.cancel(orderId, storeId, CANCELABLE, cancelReason), orderId, storeId);
+            // 취소 UPDATE 이후에 읽어야, 그 직전에 기록된 배달 ID 도 보입니다. (이후의 배달 ID 기록은 취소된 주문이라 0건)
+            return orderRepository.findById(orderId).orElseThrow();
+        });
+        searchCountCache.evictStore(storeId);
+
+        // 연동된 배달 대행사에 접수된 배달이면 배달 취소 API 호출
+        if (canceled.getDeliveryId() != null) {
+            deliveryAgencyRegistry.find(canceled.getDeliveryAgency())
+                    .ifPresent(adapter -> cancelDelivery(adapter, orderId, canceled.getDeliveryId()));
         }
+    }
 
+    @Transactional
+    public void callCustomer(Long orderId, UserSnapshot user) {
         // 주문 상태를 'CUSTOMER_CALL'로 변경
-        order.updateStatus(Status.CUSTOMER_CALL);
-        orderRepository.save(order);
+        Long storeId = storeIdOf(user);
+        requireTransitioned(orderRepository.transitionStatus(orderId, storeId, CALLABLE, Status.CUSTOMER_CALL), orderId, storeId);
+        searchCountCache.evictStore(storeId);
 
         // todo : 연동된 배달 대행사 API로 고객 호출 요청을 보내는 로직 추가 필요
     }
 
     @Transactional
-    public void acceptOrder(Long orderId, Time estimatedCookingTime, User user) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("해당 주문을 찾을 수 없습니다. ID: " + orderId));
-
-        if (!order.getStore().getOwner().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("해당 주문에 대한 접근 권한이 없습니다.");
-        }
-
-        // 주문 상태를 'PROCESSING'으로 변경 및 조리 예상 시간 설정
-        order = Order.builder()
-                .id(order.getId())
-                .orderDateTime(order.getOrderDateTime())
-                .orderNumber(order.getOrderNumber())
-                .orderPlatform(order.getOrderPlatform())
-                .paymentMethod(order.getPaymentMethod())
-                .orderType(order.getOrderType())
-                .status(Status.PROCESSING)
-                .paymentAmount(order.getPaymentAmount())
-                .customer(order.getCustomer())
-                .store(order.getStore())
-                .address(order.getAddress())
-                .estimatedCookingTime(estimatedCookingTime)  // 조리 예상 시간 설정
-                .contactless(false).build();    // todo : contactless false로 기본으로 들어가도록 설정해두었으나, 입력으로 받아오게 추가해야함.
-
-        orderRepository.save(order);
+    public void acceptOrder(Long orderId, Time estimatedCookingTime, UserSnapshot user) {
+        // 주문 상태를 'PROCESSING'으로 변경 및 조리 예상 시간 설정 (다른 컬럼은 건드리지 않음)
+        Long storeId = storeIdOf(user);
+        requireTransitioned(orderRepository.accept(orderId, storeId, ACCEPTABLE, estimatedCookingTime), orderId, storeId);
+        searchCountCache.evictStore(storeId);
     }
 
     @Transactional
-    public void rejectOrder(Long orderId, User user) {
+    public void rejectOrder(Long orderId, UserSnapshot user) {
+        Long storeId = storeIdOf(user);
+        requireTransitioned(orderRepository.cancel(orderId, storeId, REJECTABLE, "가게에서 주문 요청을 거절했습니다."), orderId, storeId);  // 거절 사유 고정
+        searchCountCache.evictStore(storeId);
+    }
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("해당 주문을 찾을 수 없습니다. 주문 ID: " + orderId));
+    private Long storeIdOf(UserSnapshot user) {
+        if (!user.hasStore()) {
+            throw new IllegalArgumentException("사용자는 가게를 소유하지 않습니다.");
+        }
+        return user.getStoreId();
+    }
 
-        if (!order.getStore().getOwner().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("해당 주문에 대한 접근 권한이 없습니다.");
+    // 조건부 UPDATE 가 0건이면, 주문이 없는 경우(권한 없음 포함)와 상태가 맞지 않는 경우를 구분해서 예외를 던집니다.
+    private void requireTransitioned(int updated, Long orderId, Long storeId) {
+        if (updated > 0) {
+            return;
         }
+        Status current = orderRepository.findStatusByIdAndStoreId(orderId, storeId)
+                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없거나 접근 권한이 없습니다. ID: " + orderId));
+        throw new IllegalStateException("현재 주문 상태(" + current + ")에서는 처리할 수 없습니다. ID: " + orderId);
+    }
 
-        order.updateStatus(Status.CANCELED);
-        order.updateCancelReason("가게에서 주문 요청을 거절했습니다.");  // 거절 사유 고정
+    private Order findOwnedOrderDetail(Long orderId, UserSnapshot user) {
+        return orderRepository.findDetailByIdAndOwnerId(orderId, user.getId())
+                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없거나 접근 권한이 없습니다. ID: " + orderId));
+    }
 
-        orderRepository.save(order);
+    /**
+     * 라이더 배차 요청. 주문 변경(대행사, 픽업 요청 시간, 라이더 호출 시간)을 먼저 커밋한 뒤 트랜잭션 밖에서 대행사를 호출하고,
+     * 응답의 배달 ID 는 짧은 후속 트랜잭션으로 반영합니다. (대행사 응답을 기다리는 동안 DB 연결을 잡고 있지 않음)
+     * 배차 요청 가능한 상태(RIDER_REQUESTABLE)이고 배달 ID 가 없는 주문만 요청하며, 대행사 요청이 실패하면 주문 변경을 되돌립니다.
+     */
+    public CompletableFuture<DeliverySubmitResponse> handleRiderDeliveryRequest(UserSnapshot user, RiderCallRequest riderCallRequest) {
+        // 배달 플랫폼 요청 전송 (대행사별 adapter) - 지원하지 않는 대행사면 주문을 바꾸지 않습니다.
+        DeliveryAgencyAdapter adapter = deliveryAgencyRegistry.get(riderCallRequest.getDeliveryAgency());
+
+        Long orderId = riderCallRequest.getOrderId();
+        Long storeId = storeIdOf(user);
+        LocalDateTime requestedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);  // 실패 시 이 요청의 기록만 되돌리는 기준
+        RiderDeliveryRequest riderDeliveryRequest = transactionTemplate.execute(status -> prepareRiderDelivery(riderCallRequest, user, requestedAt));
+
+        return adapter.submitDelivery(riderDeliveryRequest)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    revertRiderRequest(orderId, storeId, requestedAt);
+                    if (cause instanceof DeliveryAgencyUnavailableException) {
+                        throw (DeliveryAgencyUnavailableException) cause;  // 회로 차단 등으로 호출하지 않은 경우 (503)
+                    }
+                    throw new IllegalArgumentException("배달 대행사 " + adapter.getAgency() + "로 요청 실패: " + cause.getMessage(), cause);
+                })
+                .thenApply(response -> {
+                    applyDeliverySubmitted(adapter, orderId, storeId, response);
+                    return response;
+                });
     }
 
-    @Transactional
-    public DeliverySubmitResponse handleRiderDeliveryRequest(User user, RiderCallRequest riderCallRequest) {
-        // 주문 조회
-        Order order = orderRepository.findById(riderCallRequest.getOrderId())
-                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다. 주문 ID: " + riderCallRequest.getOrderId()));
+    // 주문에 배달 대행사 / 픽업 요청 시간 / 라이더 호출 시간을 기록하고 대행사 요청을 구성합니다. (트랜잭션 안에서 호출)
+    private RiderDeliveryRequest prepareRiderDelivery(RiderCallRequest riderCallRequest, UserSnapshot user, LocalDateTime requestedAt) {
+        // 주문 조회 (현재 사용자의 가게 주문만, 주소 / 메뉴 포함)
+        Order order = findOwnedOrderDetail(riderCallRequest.getOrderId(), user);
+
+        // 접수 전 / 완료 / 이미 배차 요청한 주문은 대행사에 보내지 않습니다. (동시에 들어온 요청은 배달 ID 기록 시 걸러짐)
+        if (!RIDER_REQUESTABLE.contains(order.getStatus()) || order.getDeliveryId() != null) {
+            throw new IllegalStateException("현재 주문 상태(" + order.getStatus() + ")에서는 배차를 요청할 수 없습니다. ID: " + order.getId());
+        }
 
         // 가게 정보 가져오기
         Store store = order.getStore();
@@ -251,8 +377,11 @@ public class OrderService {
         order.updateDeliveryAgency(riderCallRequest.getDeliveryAgency());
         order.updatePickupIn(riderCallRequest.getPickupIn());
 
+        // 라이더 호출 시간 업데이트
+        order.updateRiderRequestTime(requestedAt);
+
         // RiderDeliveryRequest 구성
-        RiderDeliveryRequest riderDeliveryRequest = RiderDeliveryRequest.builder()
+        return RiderDeliveryRequest.builder()
                 .requestId(order.getOrderNumber())  // 주문 번호를 요청 ID로 사용
                 .branchCode(store.getBranchCode())  // 가게의 지점 코드
                 .senderPhone(store.getPhoneNumber())  // 상점 전화번호
@@ -270,62 +399,70 @@ public class OrderService {
                 .clientOrderNo(order.getOrderNumber())  // 신청자 주문 번호
                 .itemDetail(createItemDetails(order))  // 주문 메뉴 상세 정보
                 .build();
+    }
 
-        // 라이더 호출 시간 업데이트
-        order.updateRiderRequestTime(LocalDateTime.now());
-        orderRepository.save(order);
-
-        // 배달 플랫폼에 요청 전송 (vroong 등 대행사별 처리)
-        if ("VROONG".equalsIgnoreCase(order.getDeliveryAgency())) {
-            try {
-                return deliveryPlatformService.submitDelivery(riderDeliveryRequest);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("배달 대행사 VROONG로 요청 실패: " + e.getMessage());
-            }
+    // 대행사가 접수한 배달 ID 를 주문에 기록하고 배차 요청 상태로 바꿉니다. 대행사 호출 중 주문이 취소되었으면 접수된 배달을 취소합니다.
+    private void applyDeliverySubmitted(DeliveryAgencyAdapter adapter, Long orderId, Long storeId, DeliverySubmitResponse response) {
+        if (response == null || !StringUtils.hasText(response.getDeliveryId())) {
+            return;
         }
 
-        throw new IllegalArgumentException("지원하지 않는 배달 대행사입니다: " + riderCallRequest.getDeliveryAgency());
+        Integer assigned = transactionTemplate.execute(status -> {
+            int updated = orderRepository.assignDeliveryId(orderId, storeId, RIDER_REQUESTABLE, response.getDeliveryId());
+            if (updated > 0) {
+                orderRepository.transitionStatus(orderId, storeId, RIDER_REQUESTABLE, Status.REQUEST_DELIVERY);
+            }
+            return updated;
+        });
+
+        if (assigned == null || assigned == 0) {
+            log.warn("Order ID: {} - 배차 요청 중 주문이 취소됐거나 다른 배달이 먼저 기록되어 배달({})을 취소합니다.", orderId, response.getDeliveryId());
+            cancelDelivery(adapter, orderId, response.getDeliveryId());
+            return;
+        }
+        searchCountCache.evictStore(storeId);
     }
 
-    private List<RiderDeliveryRequest.ItemDetail> createItemDetails(Order order) {
-        return order.getOrderMenus().stream()
-                .map(orderMenu -> RiderDeliveryRequest.ItemDetail.builder()
-                        .type("ITEM")  // 기본적으로 상품 유형으로 설정
-                        .name(orderMenu.getMenu().getName())  // 메뉴 이름
-                        .quantity(orderMenu.getQuantity())  // 수량
-                        .unitPrice(Integer.parseInt(orderMenu.getMenu().getPrice()))  // 단가
-                        .stockCode(orderMenu.getMenu().getId().toString())  // 메뉴 ID를 재고 코드로 사용
-                        .build())
-                .collect(Collectors.toList());
+    // 대행사가 접수하지 않은 요청이면 주문에 남긴 대행사 / 픽업 요청 시간 / 라이더 호출 시간을 지워, 다시 요청할 수 있는 원래 상태로 돌립니다.
+    private void revertRiderRequest(Long orderId, Long storeId, LocalDateTime requestedAt) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.clearRiderRequest(orderId, storeId, requestedAt));
+        } catch (RuntimeException e) {
+            log.error("Order ID: {} - 배차 요청 기록 되돌리기 실패: {}", orderId, e.getMessage());
+        }
     }
 
-    @Transactional
-    public void checkAndUpdateDeliveryStatus(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다. ID: " + orderId));
-
-        if ("vroong".equalsIgnoreCase(order.getDeliveryAgency())) {
-            String deliveryId = order.getDeliveryId();
-            TrackDeliveryResponse statusResponse = deliveryPlatformService.trackDelivery(deliveryId);
-
-            log.info("Order ID: {} - Current Status: {}", orderId, statusResponse.getStatus());
-
-            switch (statusResponse.getStatus()) {
-                case "ASSIGNING_AGENT":
-                    order.updateStatus(Status.REQUEST_DELIVERY);
-                    log.info("Order ID: {} - Updated to REQUEST_DELIVERY", orderId);
-                    break;
-                case "PICKING_UP":
-                    order.updateStatus(Status.DELIVERING);
-                    log.info("Order ID: {} - Updated to DELIVERING", orderId);
-                    break;
-                case "COMPLETED":
-                    order.updateStatus(Status.COMPLETED);
-                    log.info("Order ID: {} - Updated to COMPLETED", orderId);
-                    break;
-            }
+    // 대행사 배달 취소는 응답을 기다리지 않고, 실패하면 로그로 남깁니다. (주문은 이미 취소된 상태)
+    private void cancelDelivery(DeliveryAgencyAdapter adapter, Long orderId, String deliveryId) {
+        adapter.cancelDelivery(deliveryId)
+                .exceptionally(e -> {
+                    log.error("Order ID: {} - 배달({}) 취소 실패: {}", orderId, deliveryId, e.getMessage());
+                    return null;
+                });
+    }
 
-            orderRepository.save(order);
-        }
+    // 메뉴 이름 / 단가는 메뉴 카탈로그 캐시에서 가져옵니다. (주문 메뉴별 메뉴 조회 없음)
+    private List<RiderDeliveryRequest.ItemDetail> createItemDetails(Order order) {
+        List<OrderMenu> orderMenus = order.getOrderMenus();
+        Map<Long, MenuCatalog.MenuEntry> menusById = menuCatalog.findByIds(orderMenus.stream()
+                .map(orderMenu -> orderMenu.getMenu().getId())
+                .collect(Collectors.toSet()));
+
+        return orderMenus.stream()
+                .map(orderMenu -> {
+                    Long menuId = orderMenu.getMenu().getId();
+                    MenuCatalog.MenuEntry menu = menusById.get(menuId);
+                    if (menu == null) {
+                        throw new IllegalStateException("메뉴 카탈로그에 없는 메뉴입니다. 메뉴 ID: " + menuId + ", 주문 ID: " + order.getId());
+                    }
+                    return RiderDeliveryRequest.ItemDetail.builder()
+                            .type("ITEM")  // 기본적으로 상품 유형으로 설정
+                            .name(menu.getName())  // 메뉴 이름
+                            .quantity(orderMenu.getQuantity())  // 수량
+                            .unitPrice(Integer.parseInt(menu.getPrice()))  // 단가
+                            .stockCode(menu.getId().toString())  // 메뉴 ID를 재고 코드로 사용
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,126 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.domain.RefreshToken;
+import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
+import com.dlnl.deliveryguard.repository.RefreshTokenRepository;
+import com.dlnl.deliveryguard.repository.RevokedTokenFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * refresh 토큰 저장소. 토큰은 기기(deviceId)마다 하나씩 refresh_token 테이블에 해시로 저장되어, 여러 POS 에서 동시에 로그인을 유지할 수 있습니다.
+ * 재발급은 조건부 update 한 번으로 기존 토큰을 폐기(교체)하고, 폐기한 토큰은 RevokedTokenFilter 로 걸러 교체하지 않습니다.
+ * 폐기된 토큰이 다시 사용되면 토큰이 유출된 것으로 보고 그 사용자의 모든 기기 세션을 폐기합니다. (재사용 감지)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    public static final String DEFAULT_DEVICE_ID = "default";
+    private static final int MAX_DEVICE_ID_LENGTH = 64;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenFilter revokedTokenFilter;
+    private final JwtUtil jwtUtil;
+
+    // 로그인: 같은 기기의 이전 세션은 폐기하고 새 토큰을 발급합니다.
+    @Transactional
+    public String issue(Long userId, String deviceId) {
+        String device = normalizeDeviceId(deviceId);
+        refreshTokenRepository.revokeByUserIdAndDeviceId(userId, device, LocalDateTime.now());
+        return save(userId, device);
+    }
+
+    /**
+     * 재발급: 사용하지 않은 토큰이면 폐기하고 같은 기기의 새 토큰을 발급합니다. 이미 사용했거나 모르는 토큰이면 IllegalArgumentException.
+     * 폐기된 토큰이면 모든 기기의 세션도 폐기하고, 이 폐기는 예외를 던져도 롤백하지 않습니다. (호출하는 쪽도 트랜잭션으로 감싸지 않아야 합니다)
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public String rotate(VerifiedToken verifiedToken, String refreshToken) {
+        String tokenHash = JwtUtil.tokenHash(refreshToken);
+        Long userId = verifiedToken.getUserId();
+        if (revokedTokenFilter.mightContain(tokenHash)) {
+            revokeAllIfReused(tokenHash, userId);
+            throw new IllegalArgumentException("이미 사용된 refresh 토큰입니다.");
+        }
+
+        if (refreshTokenRepository.revokeIfActive(tokenHash, userId, LocalDateTime.now()) == 0) {
+            revokeAllIfReused(tokenHash, userId);  // 다른 서버에서 폐기되어 아직 필터에 없는 토큰
+            throw new IllegalArgumentException("refresh 토큰이 일치하지 않습니다.");
+        }
+        addToFilterAfterCommit(tokenHash);
+
+        return save(userId, normalizeDeviceId(verifiedToken.getDeviceId()));
+    }
+
+    // 비밀번호 변경 / 재설정 시 모든 기기의 세션을 폐기합니다.
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+
+    // 만료된 토큰을 지우고, 폐기 필터를 아직 만료되지 않은 폐기 토큰으로 다시 만듭니다. (다른 서버에서 폐기한 토큰도 반영)
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.refresh-token.cleanup-interval-millis:600000}")
+    public void cleanUp() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = refreshTokenRepository.deleteExpired(now);
+        revokedTokenFilter.rebuild(refreshTokenRepository.findRevokedTokenHashes(now));
+        if (deleted > 0) {
+            log.info("만료된 refresh 토큰 {}건 삭제", deleted);
+        }
+    }
+
+    // 필터는 오탐이 있으므로 DB 에서 폐기된 토큰인지 확인한 뒤에만 모든 세션을 폐기합니다. (재사용 시에만 조회)
+    private void revokeAllIfReused(String tokenHash, Long userId) {
+        if (refreshTokenRepository.existsByTokenHashAndUserIdAndRevokedAtIsNotNull(tokenHash, userId)) {
+            int revoked = refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+            log.warn("User ID: {} - 폐기된 refresh 토큰이 다시 사용되어 모든 기기의 세션 {}건을 폐기했습니다.", userId, revoked);
+        }
+    }
+
+    private String save(Long userId, String deviceId) {
+        String refreshToken = jwtUtil.generateRefreshToken(userId, deviceId);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(JwtUtil.tokenHash(refreshToken))
+                .userId(userId)
+                .deviceId(deviceId)
+                .expiresAt(now.plusNanos(jwtUtil.getRefreshExpirationMillis() * 1_000_000L))
+                .createdAt(now)
+                .build());
+        return refreshToken;
+    }
+
+    // 커밋 이후에 필터에 추가해서, 롤백된 교체가 토큰을 폐기된 것으로 남기지 않도록 합니다.
+    private void addToFilterAfterCommit(String tokenHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revokedTokenFilter.add(tokenHash);
+                }
+            });
+        } else {
+            revokedTokenFilter.add(tokenHash);
+        }
+    }
+
+    private static String normalizeDeviceId(String deviceId) {
+        if (!StringUtils.hasText(deviceId)) {
+            return DEFAULT_DEVICE_ID;
+        }
+        String trimmed = deviceId.trim();
+        return trimmed.length() > MAX_DEVICE_ID_LENGTH ? trimmed.substring(0, MAX_DEVICE_ID_LENGTH) : trimmed;
+    }
+}
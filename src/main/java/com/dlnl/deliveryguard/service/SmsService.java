@@ -2,9 +2,10 @@ package com.dlnl.deliveryguard.service;
 
 import com.dlnl.deliveryguard.domain.SmsSendCondition;
 import com.dlnl.deliveryguard.domain.SmsSendHistory;
-import com.dlnl.deliveryguard.domain.User;
 import com.dlnl.deliveryguard.repository.SmsSendConditionRepository;
 import com.dlnl.deliveryguard.repository.SmsSendHistoryRepository;
+import com.dlnl.deliveryguard.repository.UserRepository;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,17 +18,18 @@ import java.util.Optional;
 public class SmsService {
     private final SmsSendConditionRepository conditionRepository;
     private final SmsSendHistoryRepository historyRepository;
+    private final UserRepository userRepository;
 
     public List<SmsSendCondition> getSendConditionsByUserId(Long userId) {
         return conditionRepository.findByUserIdAndIsDeletedFalse(userId);
     }
 
-    public SmsSendCondition createSmsCondition(SmsSendCondition condition, User user) {
-        condition.updateUser(user);
+    public SmsSendCondition createSmsCondition(SmsSendCondition condition, UserSnapshot user) {
+        condition.updateUser(userRepository.getReferenceById(user.getId()));  // 스냅샷이 아닌 프록시 참조로 연결
         return conditionRepository.save(condition);
     }
 
-    public SmsSendCondition updateSmsCondition(Long id, SmsSendCondition conditionDetails, User user) {
+    public SmsSendCondition updateSmsCondition(Long id, SmsSendCondition conditionDetails, UserSnapshot user) {
         Optional<SmsSendCondition> existingConditionOpt = conditionRepository.findById(id);
 
         if (existingConditionOpt.isPresent() && existingConditionOpt.get().getUser().getId().equals(user.getId())) {
@@ -35,7 +37,6 @@ public class SmsService {
 
             existingCondition.updateSendCondition(conditionDetails.getSendCondition());
             existingCondition.updateMessageContent(conditionDetails.getMessageContent());
-            existingCondition.updateUser(user);
 
             return conditionRepository.save(existingCondition);
         } else {
@@ -43,7 +44,7 @@ public class SmsService {
         }
     }
 
-    public void deleteSmsCondition(Long id, User user) {
+    public void deleteSmsCondition(Long id, UserSnapshot user) {
         Optional<SmsSendCondition> existingCondition = conditionRepository.findById(id);
 
         if (existingCondition.isPresent() && existingCondition.get().getUser().getId().equals(user.getId())) {
@@ -55,9 +56,9 @@ public class SmsService {
         }
     }
 
-    public SmsSendHistory createSmsSendHistory(SmsSendHistory sendHistoryDetails, User user) {
+    public SmsSendHistory createSmsSendHistory(SmsSendHistory sendHistoryDetails, UserSnapshot user) {
         try {
-            sendHistoryDetails.updateUser(user);
+            sendHistoryDetails.updateUser(userRepository.getReferenceById(user.getId()));
             SmsSendHistory savedHistory = historyRepository.save(sendHistoryDetails);
 
             return savedHistory;
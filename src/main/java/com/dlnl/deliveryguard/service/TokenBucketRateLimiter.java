@@ -0,0 +1,75 @@
+package com.dlnl.deliveryguard.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 토큰 버킷 방식의 호출 한도. 초당 permitsPerSecond 개씩 토큰이 차고 최대 burst 개까지 쌓입니다.
+ * 토큰이 없으면 다음 토큰이 찰 때까지 기다릴 자리를 예약하고, 그 대기가 timeout 보다 길면 예약하지 않고 실패합니다.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double burst;
+    private final double nanosPerPermit;
+    private final LongSupplier nanoClock;
+
+    private double permits;
+    private long refilledAt;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("호출 한도는 0보다 커야 합니다.");
+        }
+        this.burst = burst;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.nanoClock = nanoClock;
+        this.permits = burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    // timeout 안에 토큰을 얻으면 (필요하면 기다린 뒤) true
+    public boolean tryAcquire(Duration timeout) {
+        long waitNanos = reserve(timeout.toNanos());
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 토큰 하나를 예약하고 기다려야 하는 시간(ns)을 돌려줍니다. timeoutNanos 안에 얻을 수 없으면 예약하지 않고 -1
+    public synchronized long reserve(long timeoutNanos) {
+        refill();
+
+        long waitNanos = permits >= 1 ? 0 : (long) Math.ceil((1 - permits) * nanosPerPermit);
+        if (waitNanos > timeoutNanos) {
+            return -1;
+        }
+        permits -= 1;
+        return waitNanos;
+    }
+
+    // 토큰을 쓰지 않고, 지금 토큰이 하나 이상 있는지만 확인합니다.
+    public synchronized boolean hasPermit() {
+        refill();
+        return permits >= 1;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        permits = Math.min(burst, permits + (now - refilledAt) / nanosPerPermit);
+        refilledAt = now;
+    }
+}
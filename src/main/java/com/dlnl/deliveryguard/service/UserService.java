@@ -4,23 +4,24 @@ import com.dlnl.deliveryguard.config.PasswordUtil;
 import com.dlnl.deliveryguard.domain.Role;
 import com.dlnl.deliveryguard.domain.Store;
 import com.dlnl.deliveryguard.domain.User;
+import com.dlnl.deliveryguard.jwt.AuthenticatedUser;
 import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
 import com.dlnl.deliveryguard.repository.StoreRepository;
 import com.dlnl.deliveryguard.repository.UserRepository;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import com.dlnl.deliveryguard.repository.UserSnapshotCache;
 import com.dlnl.deliveryguard.web.DTO.*;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -36,9 +37,15 @@ public class UserService implements UserDetailsService {
     private final StoreRepository storeRepository;
     private final PasswordEncoder passwordEncoder;
 
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
     private final JwtUtil jwtUtil;
 
+    private final UserSnapshotCache userSnapshotCache;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final TransactionTemplate transactionTemplate;
+
     public User findUserById(Long id) {
         Optional<User> optionalUser = userRepository.findById(id);
         if (optionalUser.isPresent()) {
@@ -48,7 +55,14 @@ public class UserService implements UserDetailsService {
         }
     }
 
-    @Transactional
+    // 인증된 사용자의 스냅샷 (캐시에 있으면 DB 조회 없음). 엔티티가 아니므로 저장할 때는 ID 로 참조를 가져옵니다.
+    public UserSnapshot getCurrentUser(UserDetails userDetails) {
+        Long userId = getUserIdFromUserDetails(userDetails);
+        return userSnapshotCache.get(userId)
+                .orElseThrow(() -> new RuntimeException(userId + "번 사용자는 존재하지 않습니다."));
+    }
+
+    // 해싱(최대 max-wait-millis 대기)은 DB 연결을 잡기 전에 끝내고, 가게와 사용자 저장만 짧은 트랜잭션으로 묶습니다.
     public void registerUser(RegistrationRequest registrationRequest) {
         if (userRepository.existsByLoginID(registrationRequest.getLoginID())) {
             throw new IllegalArgumentException("이미 존재하는 id입니다.");
@@ -80,32 +94,28 @@ public class UserService implements UserDetailsService {
                 .role(Role.USER)
                 .build();
 
-        storeRepository.save(store);
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            storeRepository.save(store);
+            userRepository.save(user);
+        });
     }
 
     private boolean isValidPassword(String password) {
         return password.length() >= 8 && password.matches(".*[A-Za-z].*") && password.matches(".*[0-9].*");
     }
 
-    @Transactional
+    // 트랜잭션으로 감싸지 않습니다. (비밀번호 확인이 해싱 풀을 기다리는 동안 DB 연결을 잡지 않도록, refresh 토큰 저장은 issue 의 트랜잭션에서)
     public LoginResponse login(LoginRequest loginRequest) {
         User user = userRepository.findByLoginID(loginRequest.getLoginID())
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 사용자입니다."));
 
-        System.out.println("Input Password: " + loginRequest.getPassword());
-        System.out.println("Stored Password: " + user.getPassword());
-
         if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("비밀번호가 일치하지 않습니다.");
         }
 
-        String accessToken = jwtUtil.generateAccessToken(user.getId());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getId());
-
-        user.updateRefreshToken(refreshToken);
-        user.updateUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        // refresh 토큰은 refresh_token 테이블에 기기별로 저장하므로 사용자 행은 갱신하지 않습니다.
+        String accessToken = jwtUtil.generateAccessToken(UserSnapshot.of(user));
+        String refreshToken = refreshTokenService.issue(user.getId(), loginRequest.getDeviceId());
 
         return LoginResponse.builder()
                 .accessToken(accessToken)
@@ -113,30 +123,19 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
-    @Transactional
+    // 트랜잭션으로 감싸지 않습니다. (refresh 토큰 재사용이 감지되면 rotate 가 예외와 함께 커밋하는 세션 폐기가 롤백되지 않도록)
     public TokenResponse reissueToken(String expiredAccessToken, String refreshToken) {
-
-        if (!jwtUtil.validateRefreshToken(refreshToken)) {
+        VerifiedToken verifiedToken = jwtUtil.parseAndVerify(refreshToken);
+        if (!verifiedToken.isRefreshToken()) {
             throw new IllegalArgumentException("유효하지 않은 리프레시 토큰입니다.");
         }
 
-        Long userId = jwtUtil.getIdFromToken(refreshToken);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-
-        // DB에 저장된 Refresh token과 일치하는지 확인
-        if (!user.getRefreshToken().equals(refreshToken)) {
-            throw new IllegalArgumentException("refresh 토큰이 일치하지 않습니다.");
-        }
-
-        // Access token 재발급
-        String newAccessToken = jwtUtil.generateAccessToken(user.getId());
-        String newRefreshToken = jwtUtil.generateRefreshToken(user.getId());
+        // 기존 refresh 토큰 폐기 (조건부 update 한 번) 후 같은 기기의 새 토큰 발급
+        String newRefreshToken = refreshTokenService.rotate(verifiedToken, refreshToken);
 
-        // 새로운 Refresh token을 업데이트 후 저장
-        user.updateRefreshToken(newRefreshToken);
-        user.updateUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        UserSnapshot user = userSnapshotCache.get(verifiedToken.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+        String newAccessToken = jwtUtil.generateAccessToken(user);
 
         return TokenResponse.builder()
                 .accessToken(newAccessToken)
@@ -149,7 +148,9 @@ public class UserService implements UserDetailsService {
         return jwtUtil.validateToken(token);
     }
 
-    public void sendUserIdToEmail(String email) throws MessagingException {
+    // 메일은 outbox 에 저장만 하고 MailOutboxDispatcher 가 따로 보냅니다. (요청에서 SMTP 왕복 없음)
+    @Transactional
+    public void sendUserIdToEmail(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
 
         if (userOpt.isPresent()) {
@@ -162,70 +163,71 @@ public class UserService implements UserDetailsService {
         }
     }
 
-    private void sendEmailWithUserId(String email, String userId) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setTo(email);
-        helper.setSubject("내 아이디 찾기");
-        helper.setText("<p>고객님의 이메일와 일치하는 아이디입니다.<br><strong>" + userId + "</strong></p>", true);
-
-        mailSender.send(message);
+    private void sendEmailWithUserId(String email, String userId) {
+        mailOutboxService.enqueue(email, "내 아이디 찾기",
+                "<p>고객님의 이메일와 일치하는 아이디입니다.<br><strong>" + userId + "</strong></p>");
     }
-    public void resetPasswordAndSendEmail(String email) throws MessagingException {
-        Optional<User> userOpt = userRepository.findByEmail(email);
 
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
+    // 해싱(최대 max-wait-millis 대기)은 DB 연결을 잡기 전에 끝내고, 비밀번호 변경과 메일 저장은 짧은 한 트랜잭션으로 묶습니다.
+    // 메일을 저장하지 못하면 비밀번호도 바뀌지 않습니다.
+    public void resetPasswordAndSendEmail(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new IllegalArgumentException("해당 이메일을 가진 사용자를 찾을 수 없습니다.");
+        }
 
-            // 랜덤 비밀번호 생성
-            String randomPassword = PasswordUtil.generateRandomPassword();
-            System.out.println("Generated Password: " + randomPassword);
+        // 랜덤 비밀번호 생성 후 암호화
+        String randomPassword = PasswordUtil.generateRandomPassword();
+        String encodedPassword = passwordEncoder.encode(randomPassword);
 
-            // 비밀번호 암호화 후 업데이트
-            String encodedPassword = passwordEncoder.encode(randomPassword);
-            System.out.println("Encoded Password: " + encodedPassword);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new IllegalArgumentException("해당 이메일을 가진 사용자를 찾을 수 없습니다."));
             user.updatePassword(encodedPassword);
             user.updateUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
+            userSnapshotCache.evict(user.getId());
+            refreshTokenService.revokeAll(user.getId());  // 모든 기기에서 다시 로그인
 
             // 이메일로 비밀번호 전송
             sendEmailWithNewPassword(email, randomPassword);
-        } else {
-            throw new IllegalArgumentException("해당 이메일을 가진 사용자를 찾을 수 없습니다.");
-        }
+        });
     }
 
-    private void sendEmailWithNewPassword(String email, String newPassword) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setTo(email);
-        helper.setSubject("임시 비밀번호 발급");
-        helper.setText("<p>임시 비밀번호를 알려드립니다.<br>" + newPassword + "</p>", true);
-
-        mailSender.send(message);
+    private void sendEmailWithNewPassword(String email, String newPassword) {
+        mailOutboxService.enqueue(email, "임시 비밀번호 발급", "<p>임시 비밀번호를 알려드립니다.<br>" + newPassword + "</p>");
     }
 
     // 기존 비밀번호와 새로운 비밀번호가 모두 필요한 경우 (로그인된 사용자의 비밀번호 변경)
-    @Transactional
+    // 비밀번호 확인과 해싱은 트랜잭션 밖에서 하고, 변경은 짧은 트랜잭션에서 다시 읽어 확인한 비밀번호가 그대로일 때만 합니다.
     public void updatePassword(Long userId, String currentPassword, String newPassword) {
-        User user = findUserById(userId);
+        String verifiedPassword = findUserById(userId).getPassword();
 
         // 현재 비밀번호 검증
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordEncoder.matches(currentPassword, verifiedPassword)) {
             throw new IllegalArgumentException("현재 비밀번호가 일치하지 않습니다.");
         }
 
         // 새로운 비밀번호 암호화 후 업데이트
         String encodedPassword = passwordEncoder.encode(newPassword);
-        user.updatePassword(encodedPassword);
-        user.updateUpdatedAt(LocalDateTime.now());
 
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = findUserById(userId);
+            if (!verifiedPassword.equals(user.getPassword())) {
+                throw new IllegalStateException("비밀번호가 그 사이 변경되었습니다. 다시 시도해 주세요.");
+            }
+            user.updatePassword(encodedPassword);
+            user.updateUpdatedAt(LocalDateTime.now());
+
+            userRepository.save(user);
+            userSnapshotCache.evict(userId);
+            refreshTokenService.revokeAll(userId);
+        });
     }
 
     public Long getUserIdFromUserDetails(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();  // 토큰 클레임의 사용자 ID (DB 조회 없음)
+        }
         try {
             String loginId = userDetails.getUsername();
             User user = userRepository.findByLoginID(loginId)
@@ -243,11 +245,18 @@ public class UserService implements UserDetailsService {
         return createUserDetails(user);
     }
 
-    public UserDetails loadUserById(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다: " + userId));
-
-        return createUserDetails(user);
+    /**
+     * access 토큰의 principal. 토큰 클레임(가게 ID, 권한)으로 만들되, 클레임이 없는 이전 토큰이거나
+     * 토큰 발급 이후 사용자 정보가 수정된 경우에는 사용자 스냅샷에서 만들어 바뀐 가게 / 권한을 바로 반영합니다.
+     * (스냅샷은 메모리 캐시이므로 요청마다 DB 를 조회하지 않고, 다른 노드의 수정은 스냅샷 ttl 이내에 반영)
+     */
+    public UserDetails loadPrincipal(VerifiedToken token) {
+        UserSnapshot user = userSnapshotCache.get(token.getUserId())
+                .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다: " + token.getUserId()));
+        if (token.hasPrincipalClaims() && !user.isUpdatedAfter(token.getIssuedAt())) {
+            return AuthenticatedUser.of(token);
+        }
+        return AuthenticatedUser.of(user);
     }
 
     private UserDetails createUserDetails(User user) {
@@ -0,0 +1,97 @@
+package com.dlnl.deliveryguard.service;
+
+import com.dlnl.deliveryguard.config.DeliveryAgencyProperties;
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.web.DTO.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// 배달 대행사 vroong 연동 (delivery.agencies.vroong.*)
+@Component
+public class VroongDeliveryAgencyAdapter implements DeliveryAgencyAdapter {
+
+    public static final String AGENCY = "VROONG";
+
+    private final DeliveryAgencyProperties.Agency properties;
+
+    private final DeliveryAgencyClient client;
+
+    public VroongDeliveryAgencyAdapter(DeliveryAgencyProperties agencyProperties, MeterRegistry meterRegistry) {
+        this.properties = agencyProperties.getAgency(AGENCY);
+        this.client = new DeliveryAgencyClient(AGENCY, properties, meterRegistry);
+    }
+
+    @Override
+    public String getAgency() {
+        return AGENCY;
+    }
+
+    // 배달 취소 API 요청 메서드
+    @Override
+    public CompletableFuture<CancelDeliveryResponse> cancelDelivery(String deliveryId) {
+        // 요청 데이터 구성
+        CancelDeliveryRequest cancelDeliveryRequest = CancelDeliveryRequest.builder()
+                .deliveryId(deliveryId)
+                .build();
+
+        // 헤더 설정 (API 키 인증 추가)
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "ApiKey " + properties.getApiKey());
+        headers.set("ApiSecret", properties.getApiSecret());
+
+        return client.call(() -> exchange("/api/delivery/cancel", new HttpEntity<>(cancelDeliveryRequest, headers), CancelDeliveryResponse.class));
+    }
+
+    // 배달 제출 API 요청 메서드
+    @Override
+    public CompletableFuture<DeliverySubmitResponse> submitDelivery(RiderDeliveryRequest deliverySubmitRequest) {
+        return client.call(() -> exchange("/api/delivery/submit", new HttpEntity<>(deliverySubmitRequest, apiKeyHeaders()), DeliverySubmitResponse.class));
+    }
+
+    @Override
+    public CompletableFuture<TrackDeliveryResponse> trackDelivery(String deliveryId) {
+        TrackDeliveryRequest trackDeliveryRequest = new TrackDeliveryRequest(deliveryId);
+
+        return client.call(() -> exchange("/api/delivery/track", new HttpEntity<>(trackDeliveryRequest, apiKeyHeaders()), TrackDeliveryResponse.class));
+    }
+
+    @Override
+    public CompletableFuture<TrackDeliveryResponse> pollDelivery(String deliveryId, Duration maxWait) {
+        TrackDeliveryRequest trackDeliveryRequest = new TrackDeliveryRequest(deliveryId);
+
+        return client.poll(() -> exchange("/api/delivery/track", new HttpEntity<>(trackDeliveryRequest, apiKeyHeaders()), TrackDeliveryResponse.class), maxWait);
+    }
+
+    @Override
+    public Optional<Status> toOrderStatus(String deliveryStatus) {
+        return DeliveryStatusMapper.toOrderStatus(deliveryStatus);
+    }
+
+    // 배달 제출 / 조회 API 헤더
+    private HttpHeaders apiKeyHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("apikey", properties.getApiKey());
+        headers.set("secret", properties.getApiSecret());
+        headers.set("Accept-Encoding", "gzip");
+        return headers;
+    }
+
+    private <T> T exchange(String path, HttpEntity<?> requestEntity, Class<T> responseType) {
+        ResponseEntity<T> responseEntity = client.getRestTemplate().exchange(
+                properties.getBaseUrl() + path, HttpMethod.POST, requestEntity, responseType);
+        return responseEntity.getBody();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.close();
+    }
+}
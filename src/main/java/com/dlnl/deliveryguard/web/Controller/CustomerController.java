@@ -2,6 +2,7 @@ package com.dlnl.deliveryguard.web.Controller;
 
 import com.dlnl.deliveryguard.domain.Customer;
 import com.dlnl.deliveryguard.service.CustomerService;
+import com.dlnl.deliveryguard.service.UserService;
 import com.dlnl.deliveryguard.web.DTO.CustomerDetailResponse;
 import com.dlnl.deliveryguard.web.DTO.CustomerListResponse;
 import org.springframework.data.domain.Page;
@@ -9,6 +10,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,20 +20,25 @@ public class CustomerController {
 
     private final CustomerService customerService;
 
-    public CustomerController(CustomerService customerService) {
+    private final UserService userService;
+
+    public CustomerController(CustomerService customerService, UserService userService) {
         this.customerService = customerService;
+        this.userService = userService;
     }
 
     @GetMapping("/list")
     public ResponseEntity<CustomerListResponse> getCustomers(
+            @AuthenticationPrincipal UserDetails userDetails,
             @RequestParam(value = "nickname", required = false) String nickname,
             @RequestParam(value = "phoneNumber", required = false) String phoneNumber,
             @RequestParam(value = "address", required = false) String address,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         Pageable pageable = PageRequest.of(page, size);
-        CustomerListResponse customerResponse = customerService.getCustomers(nickname, phoneNumber, address, pageable);
+        CustomerListResponse customerResponse = customerService.getCustomers(nickname, phoneNumber, address, pageable, withTotal, userService.getCurrentUser(userDetails));
         return ResponseEntity.ok(customerResponse);
     }
 
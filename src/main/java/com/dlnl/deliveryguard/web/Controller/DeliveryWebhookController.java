@@ -0,0 +1,55 @@
+package com.dlnl.deliveryguard.web.Controller;
+
+import com.dlnl.deliveryguard.service.DeliveryWebhookService;
+import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/delivery/webhook")
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryWebhookController {
+
+    private final DeliveryWebhookService deliveryWebhookService;
+    private final ObjectMapper objectMapper;
+
+    // 배달 대행사 배달 상태 알림 (본문은 배달 조회 응답과 같은 형식)
+    // 배달 ID 는 대행사 안에서만 고유하므로 대행사별 주소(/{agency}/status)를 권장합니다.
+    @PostMapping({"/status", "/{agency}/status"})
+    public ResponseEntity<String> receiveStatus(
+            @PathVariable(value = "agency", required = false) String agency,
+            @RequestHeader(value = "X-Webhook-Timestamp", required = false) String timestamp,
+            @RequestHeader(value = "X-Webhook-Signature", required = false) String signature,
+            @RequestBody String body) {
+
+        // 서명은 원문 그대로 검증해야 하므로 문자열로 받은 뒤 역직렬화합니다.
+        if (!deliveryWebhookService.verifySignature(timestamp, signature, body)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("서명이 올바르지 않습니다.");
+        }
+
+        TrackDeliveryResponse callback;
+        try {
+            callback = objectMapper.readValue(body, TrackDeliveryResponse.class);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("잘못된 요청 형식입니다.");
+        }
+        if (!StringUtils.hasText(callback.getDeliveryId()) || !StringUtils.hasText(callback.getStatus())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("배달 ID와 상태는 필수입니다.");
+        }
+
+        try {
+            deliveryWebhookService.handleStatusCallback(agency, callback);
+            return ResponseEntity.ok("SUCCESS");  // 중복 / 모르는 배달도 재전송하지 않도록 성공으로 응답
+        } catch (Exception e) {
+            log.error("Delivery ID: {} - webhook 처리 실패", callback.getDeliveryId(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("배달 상태 반영 중 오류가 발생했습니다.");
+        }
+    }
+}
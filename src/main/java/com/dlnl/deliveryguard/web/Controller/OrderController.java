@@ -1,24 +1,34 @@
 package com.dlnl.deliveryguard.web.Controller;
 
-import com.dlnl.deliveryguard.domain.User;
-import com.dlnl.deliveryguard.service.DeliveryPlatformService;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import com.dlnl.deliveryguard.service.DeliveryAgencyUnavailableException;
 import com.dlnl.deliveryguard.service.OrderService;
 import com.dlnl.deliveryguard.service.UserService;
 import com.dlnl.deliveryguard.web.DTO.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -28,36 +38,82 @@ public class OrderController {
 
     private final UserService userService;
 
-    private final DeliveryPlatformService deliveryPlatformService;
-
     @GetMapping("/search")
     public ResponseEntity<PagedModel<EntityModel<OrderListResponse>>> searchOrders(
             @AuthenticationPrincipal UserDetails userDetails,
             OrderSearchCriteria criteria,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "seek", defaultValue = "false") boolean seek,
+            @RequestParam(value = "withTotal", defaultValue = "true") boolean withTotal,
             @PageableDefault(size = 10) Pageable pageable,
             PagedResourcesAssembler<OrderListResponse> assembler) {
 
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
+
+            // cursor 또는 seek 파라미터가 있으면 keyset 방식, 없으면 기존 offset 방식 (구버전 POS 호환)
+            if (seek || cursor != null) {
+                OrderCursor orderCursor = StringUtils.hasText(cursor) ? OrderCursor.decode(cursor) : null;
+                Slice<OrderListResponse> orders = orderService.searchOrdersAfter(criteria, orderCursor, pageable.getPageSize(), user);
+                return ResponseEntity.ok(toSliceModel(orders, nextCursorUri(orders)));
+            }
+
+            // withTotal=false 이면 count 쿼리 없이 다음 페이지 존재 여부만 반환
+            if (!withTotal) {
+                Slice<OrderListResponse> orders = orderService.searchOrdersSlice(criteria, pageable, user);
+                String nextUri = orders.hasNext()
+                        ? ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("page", pageable.getPageNumber() + 1).build().toUriString()
+                        : null;
+                return ResponseEntity.ok(toSliceModel(orders, nextUri));
+            }
 
             Page<OrderListResponse> orders = orderService.searchOrders(criteria, pageable, user);
 
             PagedModel<EntityModel<OrderListResponse>> pagedModel = assembler.toModel(orders);
 
             return ResponseEntity.ok(pagedModel);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // keyset / slice 검색 결과에는 전체 건수가 없으므로 page 메타데이터 없이 self / next 링크만 담습니다.
+    private PagedModel<EntityModel<OrderListResponse>> toSliceModel(Slice<OrderListResponse> orders, String nextUri) {
+        List<EntityModel<OrderListResponse>> content = orders.getContent().stream()
+                .map(EntityModel::of)
+                .collect(Collectors.toList());
+
+        List<Link> links = new ArrayList<>();
+        links.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().build().toUriString()).withSelfRel());
+        if (nextUri != null) {
+            links.add(Link.of(nextUri, IanaLinkRelations.NEXT));
+        }
+
+        return PagedModel.of(content, (PagedModel.PageMetadata) null, links);
+    }
+
+    private String nextCursorUri(Slice<OrderListResponse> orders) {
+        if (!orders.hasNext()) {
+            return null;
+        }
+        OrderListResponse last = orders.getContent().get(orders.getNumberOfElements() - 1);
+        String nextCursor = new OrderCursor(last.getOrderDateTime(), last.getOrderId()).encode();
+        return ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("seek")
+                .replaceQueryParam("page")
+                .replaceQueryParam("cursor", nextCursor)
+                .build()
+                .toUriString();
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderDetailResponse> getOrderDetail(
             @PathVariable Long orderId,
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             OrderDetailResponse orderDetail = orderService.getOrderDetail(orderId, user);
             return ResponseEntity.ok(orderDetail);
@@ -72,8 +128,7 @@ public class OrderController {
             @RequestBody OrderCreateRequest orderCreateRequest,
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             orderService.createOrder(orderCreateRequest, user);
 
@@ -83,18 +138,37 @@ public class OrderController {
         }
     }
 
+    // 주문 대량 등록 (주문 플랫폼 연동용)
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createOrders(
+            @RequestBody BulkOrderCreateRequest bulkOrderCreateRequest,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            UserSnapshot user = userService.getCurrentUser(userDetails);
+
+            BulkOrderCreateResponse response = orderService.createOrders(bulkOrderCreateRequest.getOrders(), user);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Failed to create orders: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to create orders: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/cancel")
     public ResponseEntity<String> cancelOrder(
             @RequestBody CancelOrderRequest cancelOrderRequest,
             @AuthenticationPrincipal UserDetails userDetails) {
 
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             orderService.cancelOrder(cancelOrderRequest.getOrderId(), cancelOrderRequest.getCancelReason(), user);
 
             return ResponseEntity.ok("주문이 성공적으로 취소되었습니다.");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("해당 주문을 취소할 수 없습니다. 사유 : " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("해당 주문을 취소할 수 없습니다. 사유 : " + e.getMessage());
         }
@@ -107,8 +181,7 @@ public class OrderController {
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             // 현재 사용자 정보 가져오기
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             // 고객 호출 처리
             orderService.callCustomer(orderId, user);
@@ -116,6 +189,8 @@ public class OrderController {
             return ResponseEntity.ok("고객 호출이 성공적으로 완료되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());  // 현재 상태에서 허용되지 않는 전이
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("고객 호출 중 오류가 발생했습니다.");
         }
@@ -129,8 +204,7 @@ public class OrderController {
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             // 현재 사용자의 정보 가져오기
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             // 주문 요청 수락 처리
             orderService.acceptOrder(orderId, acceptOrderRequest.getEstimatedCookingTime(), user);
@@ -138,6 +212,8 @@ public class OrderController {
             return ResponseEntity.ok("주문이 성공적으로 수락되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());  // 현재 상태에서 허용되지 않는 전이
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("주문 수락 중 오류가 발생했습니다.");
         }
@@ -150,14 +226,15 @@ public class OrderController {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
 
             orderService.rejectOrder(orderId, user);
 
             return ResponseEntity.ok("주문이 성공적으로 거절되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());  // 현재 상태에서 허용되지 않는 전이
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("주문 거절 중 오류가 발생했습니다.");
         }
@@ -165,21 +242,31 @@ public class OrderController {
 
 
 
+    // 대행사 응답은 비동기로 기다립니다. (대행사 응답 전까지 요청 스레드 / DB 연결을 점유하지 않음)
     @PostMapping("/rider-request")
-    public ResponseEntity<?> createRiderDeliveryRequest(
+    public CompletableFuture<ResponseEntity<?>> createRiderDeliveryRequest(
             @RequestBody RiderCallRequest riderCallRequest,
             @AuthenticationPrincipal UserDetails userDetails) {
 
         try {
-            Long userId = userService.getUserIdFromUserDetails(userDetails);
-            User user = userService.findUserById(userId);
-
-            DeliverySubmitResponse deliverySubmitResponse = orderService.handleRiderDeliveryRequest(user, riderCallRequest);
-
-            return ResponseEntity.ok(deliverySubmitResponse);
+            UserSnapshot user = userService.getCurrentUser(userDetails);
+
+            return orderService.handleRiderDeliveryRequest(user, riderCallRequest)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        HttpStatus status = cause instanceof DeliveryAgencyUnavailableException
+                                ? HttpStatus.SERVICE_UNAVAILABLE   // 회로 차단 / 동시 호출 한도 초과로 바로 실패
+                                : HttpStatus.INTERNAL_SERVER_ERROR;
+                        return ResponseEntity.status(status)
+                                .body("배달 요청에 실패했습니다: " + cause.getMessage());
+                    });
+        } catch (IllegalStateException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("배달 요청에 실패했습니다: " + e.getMessage()));  // 배차 요청할 수 없는 주문 상태
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("배달 요청에 실패했습니다: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("배달 요청에 실패했습니다: " + e.getMessage()));
         }
     }
 
@@ -2,7 +2,7 @@ package com.dlnl.deliveryguard.web.Controller;
 
 import com.dlnl.deliveryguard.domain.SmsSendCondition;
 import com.dlnl.deliveryguard.domain.SmsSendHistory;
-import com.dlnl.deliveryguard.domain.User;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
 import com.dlnl.deliveryguard.service.SmsService;
 import com.dlnl.deliveryguard.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -33,8 +33,7 @@ public class SmsController {
     public ResponseEntity<SmsSendCondition> createOrUpdateCondition(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody SmsSendCondition condition) {
-        Long userId = userService.getUserIdFromUserDetails(userDetails);
-        User user = userService.findUserById(userId);
+        UserSnapshot user = userService.getCurrentUser(userDetails);
         return ResponseEntity.ok(smsService.createSmsCondition(condition, user));
     }
 
@@ -43,8 +42,7 @@ public class SmsController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id,
             @RequestBody SmsSendCondition conditionDetails) {
-        Long userId = userService.getUserIdFromUserDetails(userDetails);
-        User user = userService.findUserById(userId);
+        UserSnapshot user = userService.getCurrentUser(userDetails);
         return ResponseEntity.ok(smsService.updateSmsCondition(id, conditionDetails, user));
     }
 
@@ -52,8 +50,7 @@ public class SmsController {
     public ResponseEntity<String> deleteCondition(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
-        Long userId = userService.getUserIdFromUserDetails(userDetails);
-        User user = userService.findUserById(userId);
+        UserSnapshot user = userService.getCurrentUser(userDetails);
         smsService.deleteSmsCondition(id, user);
         return ResponseEntity.ok("문자 전송 조건 삭제가 완료되었습니다.");
     }
@@ -62,8 +59,7 @@ public class SmsController {
     public ResponseEntity<SmsSendHistory> createSendHistory(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestBody SmsSendHistory sendHistoryDetails) {
-        Long userId = userService.getUserIdFromUserDetails(userDetails);
-        User user = userService.findUserById(userId);
+        UserSnapshot user = userService.getCurrentUser(userDetails);
         return ResponseEntity.ok(smsService.createSmsSendHistory(sendHistoryDetails, user));
     }
 
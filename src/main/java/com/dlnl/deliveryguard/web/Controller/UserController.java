@@ -1,8 +1,10 @@
 package com.dlnl.deliveryguard.web.Controller;
 
+import com.dlnl.deliveryguard.config.PasswordHashingBusyException;
+import com.dlnl.deliveryguard.service.LoginAttemptLimiter;
 import com.dlnl.deliveryguard.service.UserService;
 import com.dlnl.deliveryguard.web.DTO.*;
-import jakarta.mail.MessagingException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +18,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     @Autowired
     private UserService userService;
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody RegistrationRequest registrationRequest) {
@@ -24,13 +28,25 @@ public class UserController {
             return new ResponseEntity<>("회원가입이 성공적으로 완료되었습니다.", HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest) {
-        LoginResponse loginResponse = userService.login(loginRequest);
-        return new ResponseEntity<>(loginResponse, HttpStatus.OK);
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        if (!loginAttemptLimiter.tryAcquire(request.getRemoteAddr(), loginRequest.getLoginID())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("로그인 시도가 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+        }
+        try {
+            LoginResponse loginResponse = userService.login(loginRequest);
+            return new ResponseEntity<>(loginResponse, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            loginAttemptLimiter.recordFailure(loginRequest.getLoginID());  // 실패한 시도만 로그인 ID 한도에 셉니다.
+            throw e;
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
     }
 
     @PostMapping("/reissue")
@@ -58,8 +74,6 @@ public class UserController {
             return ResponseEntity.ok("사용자 ID가 이메일로 전송되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (MessagingException e) {
-            return ResponseEntity.status(500).body("이메일 전송 중 오류가 발생했습니다.");
         }
     }
     @PostMapping("/reset-password")
@@ -69,8 +83,8 @@ public class UserController {
             return ResponseEntity.ok("새 비밀번호가 이메일로 전송되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (MessagingException e) {
-            return ResponseEntity.status(500).body("이메일 전송 중 오류가 발생했습니다.");
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         }
     }
 
@@ -82,6 +96,10 @@ public class UserController {
             return ResponseEntity.ok("비밀번호가 성공적으로 변경되었습니다.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {  // 확인한 뒤 다른 요청이 비밀번호를 변경
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();  // 예외 로그 출력
             return ResponseEntity.status(500).body("비밀번호 변경 중 오류가 발생했습니다.");
@@ -0,0 +1,16 @@
+package com.dlnl.deliveryguard.web.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderCreateRequest {
+    private List<OrderCreateRequest> orders;   // 한 번에 등록할 주문 목록
+}
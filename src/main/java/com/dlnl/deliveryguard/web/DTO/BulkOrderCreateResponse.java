@@ -0,0 +1,17 @@
+package com.dlnl.deliveryguard.web.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderCreateResponse {
+    private int createdCount;       // 등록된 주문 수
+    private List<Long> orderIds;    // 등록된 주문 ID (요청 순서와 동일)
+}
@@ -1,5 +1,6 @@
 package com.dlnl.deliveryguard.web.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -10,6 +11,9 @@ public class CustomerListResponse {
 
     private StoreDTO store;  // Store 정보는 한번만 출력
     private List<CustomerDTO> customers;  // 고객 목록
+    private boolean hasNext;  // 다음 페이지 존재 여부
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;  // 전체 고객 수 (withTotal=true 요청 시에만 포함)
 
     @Builder
     @Getter
@@ -8,4 +8,5 @@ import lombok.Setter;
 public class LoginRequest {
     private String loginID;
     private String password;
+    private String deviceId;    // 로그인한 기기(POS 단말) ID. 기기마다 refresh 토큰을 따로 유지합니다. (없으면 default)
 }
@@ -0,0 +1,40 @@
+package com.dlnl.deliveryguard.web.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 주문 검색 keyset 페이지네이션용 커서.
+ * (order_date_time, id) 조합을 클라이언트에게는 불투명한 토큰으로 인코딩해서 전달합니다.
+ * 주문 일시가 없는 주문은 (offset 방식과 같이) 맨 뒤에 오며, 이 경우 주문 일시 자리는 비워 둡니다.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime orderDateTime;   // 직전 페이지 마지막 주문의 주문 일시 (없으면 null)
+    private Long orderId;                  // 직전 페이지 마지막 주문의 ID
+
+    public String encode() {
+        String raw = (orderDateTime != null ? orderDateTime.toString() : "") + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            String dateTimePart = raw.substring(0, separatorIndex);
+            LocalDateTime orderDateTime = dateTimePart.isEmpty() ? null : LocalDateTime.parse(dateTimePart);
+            Long orderId = Long.parseLong(raw.substring(separatorIndex + 1));
+            return new OrderCursor(orderDateTime, orderId);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("유효하지 않은 커서입니다: " + token);
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class OrderListResponse {
         private String menuName;
         private Integer quantity;
     }
+    private Long orderId;
     private LocalDateTime orderDateTime;
     private List<MenuWithQuantity> menus;
     private String customerPhoneNumber;
@@ -5,6 +5,7 @@ import com.dlnl.deliveryguard.domain.Status;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
 
@@ -21,4 +22,10 @@ public class OrderSearchCriteria {
     private OrderType orderType;              // 주문 유형
     private Status status;                 // 처리 상태
     private String paymentAmount;          // 결제 금액
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTimeFrom;   // 주문 일시 범위 시작 (이상)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTimeTo;     // 주문 일시 범위 끝 (미만)
+    private Integer minPaymentAmount;          // 최소 결제 금액 (이상)
+    private Integer maxPaymentAmount;          // 최대 결제 금액 (이하)
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.config.BoundedPasswordEncoder;
+import com.dlnl.deliveryguard.config.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BoundedPasswordEncoder 테스트")
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("해싱 결과를 그대로 돌려주고, 해싱 소요 시간을 작업별로 기록한다")
+    void delegatesAndRecordsTime() {
+        // given
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(false), 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        // when
+        String encoded = encoder.encode("password");
+        boolean matches = encoder.matches("password", encoded);
+
+        // then
+        assertEquals("{plain}password", encoded);
+        assertTrue(matches);
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 기다리지 않고 PasswordHashingBusyException 으로 실패한다")
+    void rejectsWhenQueueFull() throws Exception {
+        // given - 스레드 1개는 해싱 중, 대기열 1칸은 대기 중
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(true), 1, 1, Duration.ofSeconds(5), meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        awaitQueueSize(1);
+
+        // when & then
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("rejected"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("{plain}running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("{plain}queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("maxWait 안에 해싱이 끝나지 않으면 PasswordHashingBusyException 으로 실패한다")
+    void timesOut() {
+        // given
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(true), 1, 1, Duration.ofMillis(100), meterRegistry);
+
+        // when & then
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("password", "{plain}password"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+    }
+
+    private void awaitQueueSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue").gauge().value() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, meterRegistry.get("auth.password.queue").gauge().value());
+    }
+
+    // 해싱 대신 접두어만 붙이는 encoder. blocking 이면 release 될 때까지 해싱 중인 것처럼 멈춰 있습니다.
+    private class PlainEncoder implements PasswordEncoder {
+
+        private final boolean blocking;
+
+        private PlainEncoder(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hash();
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            hash();
+            return ("{plain}" + rawPassword).equals(encodedPassword);
+        }
+
+        private void hash() {
+            started.countDown();
+            if (blocking) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
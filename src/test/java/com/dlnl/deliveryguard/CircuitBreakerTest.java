@@ -0,0 +1,160 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.service.CircuitBreaker;
+import com.dlnl.deliveryguard.service.CircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CircuitBreaker 테스트")
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        // 최근 10건 중 최소 4건 이상 기록되고 실패율 50% 이상이면 OPEN, 30초 뒤 시험 호출 2건
+        circuitBreaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(30), 2, clock::get,
+                (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    @DisplayName("최소 호출 수 전에는 실패해도 열리지 않고, 실패율이 기준을 넘으면 열려서 호출을 바로 거절한다")
+    void opensOnFailureRate() {
+        // given
+        fail();
+        fail();
+        fail();
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+
+        // when
+        succeed();
+        fail();
+
+        // then
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    @DisplayName("OPEN 유지 시간이 지나면 시험 호출 수만큼만 허용하고, 모두 성공하면 닫힌다")
+    void halfOpenProbesClose() {
+        // given
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        // when
+        long first = circuitBreaker.tryAcquirePermission();
+        long second = circuitBreaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission());  // 시험 호출 2건 초과
+        circuitBreaker.onSuccess(first);
+        circuitBreaker.onSuccess(second);
+
+        // then
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    @DisplayName("시험 호출이 하나라도 실패하면 다시 열린다")
+    void halfOpenFailureReopens() {
+        // given
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        long probe = circuitBreaker.tryAcquirePermission();
+
+        // when
+        circuitBreaker.onFailure(probe);
+
+        // then
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("오래된 실패는 window 밖으로 밀려나 실패율에서 빠진다")
+    void slidingWindow() {
+        // given
+        fail();
+        fail();
+        fail();
+        for (int i = 0; i < 10; i++) {
+            succeed();
+        }
+
+        // when
+        fail();
+        fail();
+
+        // then
+        assertEquals(State.CLOSED, circuitBreaker.getState());  // 최근 10건 중 실패 2건
+    }
+
+    @Test
+    @DisplayName("CLOSED 에서 허가받은 호출이 HALF_OPEN 중에 끝나면 시험 호출로 세지 않는다")
+    void ignoresOutcomesFromEarlierState() {
+        // given
+        long slowCall = circuitBreaker.tryAcquirePermission();  // CLOSED 에서 허가
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        long probe = circuitBreaker.tryAcquirePermission();
+
+        // when
+        circuitBreaker.onSuccess(slowCall);
+        circuitBreaker.onSuccess(probe);
+
+        // then
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());  // 시험 호출 2건 중 1건만 성공
+        circuitBreaker.onFailure(slowCall);
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());  // 이전 상태의 실패도 무시
+    }
+
+    @Test
+    @DisplayName("돌려준 시험 호출 자리는 다시 허가하고, 이전 상태의 허가를 돌려줘도 자리가 늘지 않는다")
+    void releasePermission() {
+        // given
+        long stale = circuitBreaker.tryAcquirePermission();
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        long first = circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        // when
+        circuitBreaker.releasePermission(stale);
+        long denied = circuitBreaker.tryAcquirePermission();
+        circuitBreaker.releasePermission(first);
+        long reissued = circuitBreaker.tryAcquirePermission();
+
+        // then
+        assertEquals(CircuitBreaker.NO_PERMISSION, denied);
+        assertNotEquals(CircuitBreaker.NO_PERMISSION, reissued);
+    }
+
+    private void succeed() {
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void fail() {
+        circuitBreaker.onFailure(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -131,6 +131,7 @@ class CustomerServiceTest {
 
         // Then
         assertEquals(newPhoneNumber, customer.getPhoneNumber());
+        assertEquals("23456789010", customer.getPhoneNumberReversed());  // 뒷자리 검색 컬럼도 함께 갱신
         verify(customerRepository, times(1)).save(customer);
     }
 
@@ -0,0 +1,248 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.config.DeliveryAgencyProperties;
+import com.dlnl.deliveryguard.service.CircuitBreaker.State;
+import com.dlnl.deliveryguard.service.DeliveryAgencyClient;
+import com.dlnl.deliveryguard.service.DeliveryAgencyUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DeliveryAgencyClient 테스트")
+class DeliveryAgencyClientTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeliveryAgencyProperties.Agency properties;
+
+    private DeliveryAgencyClient client;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new DeliveryAgencyProperties.Agency();
+        properties.setAsyncThreads(1);
+        properties.setAsyncQueueCapacity(1);
+        properties.setMaxConcurrentCalls(10);
+        properties.setRateLimitPerSecond(1000);
+        properties.setRateLimitBurst(1000);
+        properties.setRateLimitWaitMillis(0);
+        properties.setPollMaxConcurrentCalls(1);
+        properties.setPollRateLimitPerSecond(1000);
+        properties.setPollRateLimitBurst(1000);
+        // 최근 2건이 모두 실패하면 OPEN, 바로 HALF_OPEN 으로 넘어가 시험 호출 1건
+        properties.setCircuitWindowSize(2);
+        properties.setCircuitMinimumCalls(2);
+        properties.setCircuitFailureRateThreshold(1.0);
+        properties.setCircuitOpenSeconds(0);
+        properties.setCircuitHalfOpenProbes(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("호출이 성공하든 실패하든 끝나면 동시 호출 자리를 돌려준다")
+    void releasesBulkheadAfterCall() {
+        // given
+        client = newClient();
+
+        // when
+        assertEquals("OK", client.call(() -> "OK").join());
+        assertThrows(CompletionException.class, () -> client.call(() -> {
+            throw new IllegalStateException("502 Bad Gateway");
+        }).join());
+
+        // then
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    @DisplayName("호출 대기열이 가득 차면 바로 실패하고, 동시 호출 자리를 돌려준다")
+    void rejectsWhenQueueFull() throws Exception {
+        // given
+        client = newClient();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = client.call(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = client.call(() -> "queued");
+
+        // when
+        CompletableFuture<String> rejected = client.call(() -> "rejected");
+
+        // then
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(DeliveryAgencyUnavailableException.class, exception.getCause());
+        assertEquals(2.0, inFlight());  // 실행 중 1건 + 대기 중 1건
+
+        release.countDown();
+        assertEquals("running", running.join());
+        assertEquals("queued", queued.join());
+        assertEquals(0.0, inFlight());
+        assertEquals(1.0, meterRegistry.get("delivery.agency.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("동시 호출 한도를 넘으면 대행사를 호출하지 않고 바로 실패한다")
+    void rejectsOverBulkhead() throws Exception {
+        // given
+        properties.setMaxConcurrentCalls(1);
+        client = newClient();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = client.call(() -> {
+            await(release);
+            return "running";
+        });
+
+        // when
+        CompletableFuture<String> rejected = client.call(() -> "rejected");
+
+        // then
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(DeliveryAgencyUnavailableException.class, exception.getCause());
+        release.countDown();
+        assertEquals("running", running.join());
+        assertEquals("OK", client.call(() -> "OK").join());  // 끝난 호출의 자리를 다시 사용
+    }
+
+    @Test
+    @DisplayName("폴링은 대화형 호출과 별도의 동시 호출 자리를 써서, 대화형 호출이 자리를 모두 써도 폴링이 되고 폴링이 대화형 호출 자리를 쓰지 않는다")
+    void pollUsesSeparateBulkhead() {
+        // given
+        properties.setMaxConcurrentCalls(1);
+        client = newClient();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = client.call(() -> {
+            await(release);
+            return "running";
+        });
+
+        // when
+        String polled = client.poll(() -> "polled", Duration.ZERO).join();
+
+        // then
+        assertEquals("polled", polled);
+        assertEquals(1.0, inFlight());
+        release.countDown();
+        assertEquals("running", running.join());
+    }
+
+    @Test
+    @DisplayName("폴링 자리가 없으면 maxWait 동안 기다렸다가 호출하고, 기다려도 없으면 대행사를 호출하지 않고 실패한다")
+    void pollWaitsForFreeSlot() throws Exception {
+        // given - 폴링 동시 호출 1건
+        client = newClient();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = client.poll(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        }, Duration.ZERO);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when & then - 기다리지 않으면 바로 실패
+        CompletionException exception = assertThrows(CompletionException.class, () -> client.poll(() -> "rejected", Duration.ZERO).join());
+        assertInstanceOf(DeliveryAgencyUnavailableException.class, exception.getCause());
+
+        // when & then - 기다리는 동안 자리가 나면 호출
+        CompletableFuture.runAsync(() -> {
+            sleep(100);
+            release.countDown();
+        });
+        assertEquals("waited", client.poll(() -> "waited", Duration.ofSeconds(5)).join());
+        assertEquals("running", running.join());
+    }
+
+    @Test
+    @DisplayName("시험 호출이 호출 한도에 걸리면 시험 호출 자리를 돌려줘서 다음 요청이 시험 호출을 할 수 있다")
+    void releasesPermissionOnRateLimitReject() {
+        // given - 호출 한도 2건 (이후 보충되지 않음)
+        properties.setRateLimitPerSecond(0.001);
+        properties.setRateLimitBurst(2);
+        client = newClient();
+        failTwice();
+        assertEquals(State.OPEN, client.getCircuitState());
+
+        // when - 시험 호출이 호출 한도에 걸림
+        CompletionException first = assertThrows(CompletionException.class, () -> client.call(() -> "probe").join());
+        CompletionException second = assertThrows(CompletionException.class, () -> client.call(() -> "probe").join());
+
+        // then - 두 번째 요청도 회로 차단이 아니라 호출 한도로 실패 (시험 호출 자리가 반환됨)
+        assertEquals("배달 대행사 TEST 호출 한도를 초과했습니다.", first.getCause().getMessage());
+        assertEquals("배달 대행사 TEST 호출 한도를 초과했습니다.", second.getCause().getMessage());
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    @DisplayName("4xx 응답은 요청 문제이므로 회로 차단기의 실패로 세지 않는다")
+    void clientErrorsDoNotOpenCircuit() {
+        // given
+        client = newClient();
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> client.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }).join());
+        }
+
+        // then
+        assertEquals(State.CLOSED, client.getCircuitState());
+        failTwice();
+        assertEquals(State.OPEN, client.getCircuitState());
+    }
+
+    private DeliveryAgencyClient newClient() {
+        return new DeliveryAgencyClient("TEST", properties, meterRegistry);
+    }
+
+    private void failTwice() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> client.call(() -> {
+                throw new IllegalStateException("502 Bad Gateway");
+            }).join());
+        }
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("delivery.agency.in-flight").gauge().value();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.DeliveryPollLease;
+import com.dlnl.deliveryguard.repository.DeliveryPollLeaseRepository;
+import com.dlnl.deliveryguard.repository.DeliveryPollNodeRepository;
+import com.dlnl.deliveryguard.service.DeliveryPollLeaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DeliveryPollLeaseManager 테스트")
+class DeliveryPollLeaseManagerTest {
+
+    private static final String NODE_ID = "node-a";
+
+    @Mock
+    private DeliveryPollLeaseRepository leaseRepository;
+
+    @Mock
+    private DeliveryPollNodeRepository nodeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeliveryPollLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // shard 4개, 임대 30초
+        leaseManager = new DeliveryPollLeaseManager(leaseRepository, nodeRepository,
+                new TransactionTemplate(transactionManager), NODE_ID, 4, 30);
+    }
+
+    @Test
+    @DisplayName("혼자 살아 있으면 heartbeat 를 남기고 비어 있거나 만료된 shard 를 모두 가져온다")
+    void singleNodeTakesAllShards() {
+        // given
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        List<DeliveryPollLease> leases = List.of(free(0), free(1), lease(2, "node-dead", past), free(3));
+        when(nodeRepository.countByHeartbeatAtAfter(any())).thenReturn(1L);
+        when(leaseRepository.findClaimable(any(), eq(NODE_ID))).thenReturn(leases);
+
+        // when
+        LocalDateTime before = LocalDateTime.now();
+        Set<Integer> shards = leaseManager.refresh();
+
+        // then
+        verify(nodeRepository).heartbeat(eq(NODE_ID), any());
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+        assertEquals(4, leaseManager.ownedShardCount());
+        for (DeliveryPollLease lease : leases) {
+            assertEquals(NODE_ID, lease.getOwner());
+            assertFalse(lease.getLeaseUntil().isBefore(before.plusSeconds(30)));
+        }
+    }
+
+    @Test
+    @DisplayName("노드가 둘이면 몫(2개)만큼만 가져오고, 이미 가진 shard 를 먼저 유지한다")
+    void keepsOwnedShardsWithinFairShare() {
+        // given
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(10);
+        DeliveryPollLease free0 = free(0);
+        DeliveryPollLease owned1 = lease(1, NODE_ID, leaseUntil);
+        DeliveryPollLease free2 = free(2);
+        DeliveryPollLease owned3 = lease(3, NODE_ID, leaseUntil);
+        when(nodeRepository.countByHeartbeatAtAfter(any())).thenReturn(2L);
+        when(leaseRepository.findClaimable(any(), eq(NODE_ID))).thenReturn(List.of(free0, owned1, free2, owned3));
+
+        // when
+        Set<Integer> shards = leaseManager.refresh();
+
+        // then
+        assertEquals(Set.of(1, 3), shards);
+        assertTrue(owned1.getLeaseUntil().isAfter(leaseUntil));  // 임대 갱신
+        assertTrue(owned3.getLeaseUntil().isAfter(leaseUntil));
+        assertNull(free0.getOwner());  // 남은 shard 는 다른 노드 몫
+        assertNull(free2.getOwner());
+    }
+
+    @Test
+    @DisplayName("노드가 늘어 몫이 줄면 몫을 넘는 shard 는 반납한다")
+    void releasesExcessShards() {
+        // given
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(10);
+        List<DeliveryPollLease> leases = List.of(lease(0, NODE_ID, leaseUntil), lease(1, NODE_ID, leaseUntil),
+                lease(2, NODE_ID, leaseUntil), lease(3, NODE_ID, leaseUntil));
+        when(nodeRepository.countByHeartbeatAtAfter(any())).thenReturn(2L);
+        when(leaseRepository.findClaimable(any(), eq(NODE_ID))).thenReturn(leases);
+
+        // when
+        Set<Integer> shards = leaseManager.refresh();
+
+        // then
+        assertEquals(Set.of(0, 1), shards);
+        assertEquals(NODE_ID, leases.get(0).getOwner());
+        assertEquals(NODE_ID, leases.get(1).getOwner());
+        assertNull(leases.get(2).getOwner());
+        assertNull(leases.get(2).getLeaseUntil());
+        assertNull(leases.get(3).getOwner());
+        assertEquals(2, leaseManager.ownedShardCount());
+    }
+
+    @Test
+    @DisplayName("shard 수를 줄여 남아 있는 행은 가져오지 않는다")
+    void ignoresShardsBeyondShardCount() {
+        // given
+        DeliveryPollLease stale = free(7);
+        when(nodeRepository.countByHeartbeatAtAfter(any())).thenReturn(1L);
+        when(leaseRepository.findClaimable(any(), eq(NODE_ID))).thenReturn(List.of(free(0), stale));
+
+        // when
+        Set<Integer> shards = leaseManager.refresh();
+
+        // then
+        assertEquals(Set.of(0), shards);
+        assertNull(stale.getOwner());
+    }
+
+    @Test
+    @DisplayName("임대한 shard 의 주문만, 임대가 만료되기 전까지만 맡고 있다고 판단한다")
+    void holdsShardOfUntilLeaseExpires() {
+        // given
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(10);
+        when(nodeRepository.countByHeartbeatAtAfter(any())).thenReturn(2L);
+        when(leaseRepository.findClaimable(any(), eq(NODE_ID)))
+                .thenReturn(List.of(lease(1, NODE_ID, leaseUntil), lease(3, NODE_ID, leaseUntil)));
+        leaseManager.refresh();
+        Instant now = Instant.now();
+
+        // when & then
+        assertTrue(leaseManager.holdsShardOf(5L, now));     // 5 % 4 = 1
+        assertFalse(leaseManager.holdsShardOf(6L, now));    // 6 % 4 = 2
+        assertFalse(leaseManager.holdsShardOf(5L, now.plusSeconds(31)));  // 임대 30초 만료
+    }
+
+    private static DeliveryPollLease free(int shardNo) {
+        return DeliveryPollLease.builder()
+                .shardNo(shardNo)
+                .build();
+    }
+
+    private static DeliveryPollLease lease(int shardNo, String owner, LocalDateTime leaseUntil) {
+        return DeliveryPollLease.builder()
+                .shardNo(shardNo)
+                .owner(owner)
+                .leaseUntil(leaseUntil)
+                .build();
+    }
+}
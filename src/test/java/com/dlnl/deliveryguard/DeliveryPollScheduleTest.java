@@ -0,0 +1,115 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.service.DeliveryPollSchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DeliveryPollSchedule 테스트")
+class DeliveryPollScheduleTest {
+
+    private static final Instant NOW = Instant.parse("2024-10-01T12:00:00Z");
+
+    private DeliveryPollSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        // jitter 없이 간격만 검증
+        schedule = new DeliveryPollSchedule(Duration.ofSeconds(180), Duration.ZERO, 0.0, new Random(1));
+    }
+
+    @Test
+    @DisplayName("새 배달은 바로 조회 대상이 되고, 다시 등록하기 전까지 중복으로 꺼내지지 않는다")
+    void takeDueOnce() {
+        // given
+        schedule.sync(Set.of(1L, 2L), NOW);
+
+        // when
+        List<Long> first = schedule.takeDue(NOW);
+        List<Long> second = schedule.takeDue(NOW);
+
+        // then
+        assertEquals(Set.of(1L, 2L), Set.copyOf(first));
+        assertTrue(second.isEmpty());
+    }
+
+    @Test
+    @DisplayName("배차 대기 중인 배달은 짧게, 배달 중인 배달은 길게 조회 간격을 잡는다")
+    void intervalByStatus() {
+        // given
+        schedule.sync(Set.of(1L, 2L), NOW);
+        schedule.takeDue(NOW);
+
+        // when
+        schedule.reschedule(1L, "ASSIGNING_AGENT", NOW);
+        schedule.reschedule(2L, "DELIVERING", NOW);
+
+        // then
+        assertEquals(NOW.plusSeconds(15), schedule.nextPollAt(1L));
+        assertEquals(NOW.plusSeconds(60), schedule.nextPollAt(2L));
+    }
+
+    @Test
+    @DisplayName("같은 상태가 오래 유지되면 조회 간격이 늘어나고, 상태가 바뀌면 다시 짧아진다")
+    void intervalGrowsWithStatusAge() {
+        // given
+        schedule.sync(Set.of(1L), NOW);
+        schedule.takeDue(NOW);
+        schedule.reschedule(1L, "DELIVERING", NOW);
+
+        // when
+        Instant later = NOW.plus(Duration.ofMinutes(25));
+        schedule.takeDue(later);
+        schedule.reschedule(1L, "DELIVERING", later);
+
+        // then
+        assertEquals(later.plusSeconds(180), schedule.nextPollAt(1L));  // 60초 x 4, 최대 180초
+
+        // when
+        schedule.takeDue(later.plusSeconds(180));
+        schedule.reschedule(1L, "PICKING_UP", later.plusSeconds(180));
+
+        // then
+        assertEquals(later.plusSeconds(180 + 30), schedule.nextPollAt(1L));
+    }
+
+    @Test
+    @DisplayName("조회에 실패하면 간격이 두 배씩 늘어난다")
+    void backoffAfterFailure() {
+        // given
+        schedule.sync(Set.of(1L), NOW);
+        schedule.takeDue(NOW);
+
+        // when
+        schedule.rescheduleAfterFailure(1L, NOW);
+        Instant firstRetry = schedule.nextPollAt(1L);
+        schedule.takeDue(firstRetry);
+        schedule.rescheduleAfterFailure(1L, firstRetry);
+
+        // then
+        assertEquals(NOW.plusSeconds(120), firstRetry);
+        assertEquals(firstRetry.plusSeconds(180), schedule.nextPollAt(1L));  // 240초 → 최대 180초
+    }
+
+    @Test
+    @DisplayName("진행 중 목록에서 빠진 배달은 스케줄에서도 제거된다")
+    void syncRemovesFinishedDeliveries() {
+        // given
+        schedule.sync(Set.of(1L, 2L), NOW);
+
+        // when
+        schedule.sync(Set.of(2L), NOW);
+
+        // then
+        assertEquals(1, schedule.size());
+        assertEquals(List.of(2L), schedule.takeDue(NOW));
+    }
+}
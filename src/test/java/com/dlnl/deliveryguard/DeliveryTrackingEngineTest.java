@@ -0,0 +1,247 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.repository.OrderRepository;
+import com.dlnl.deliveryguard.repository.SearchCountCache;
+import com.dlnl.deliveryguard.repository.TrackedDelivery;
+import com.dlnl.deliveryguard.service.*;
+import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DeliveryTrackingEngine 테스트")
+class DeliveryTrackingEngineTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private DeliveryPollLeaseManager leaseManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DeliveryAgencyAdapter adapter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeliveryTrackingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(adapter.getAgency()).thenReturn("VROONG");
+        when(adapter.toOrderStatus(anyString())).thenAnswer(invocation -> DeliveryStatusMapper.toOrderStatus(invocation.getArgument(0)));
+        when(leaseManager.refresh()).thenReturn(Set.of(0));
+        when(leaseManager.getShardCount()).thenReturn(1);
+        when(leaseManager.getLeaseTtl()).thenReturn(Duration.ofSeconds(120));
+        when(leaseManager.holdsShardOf(anyLong(), any())).thenReturn(true);
+        when(orderRepository.transitionStatuses(anyCollection(), anyCollection(), any()))
+                .thenAnswer(invocation -> ((java.util.Collection<?>) invocation.getArgument(0)).size());
+
+        // 한 tick 최대 1초, 조회 간격 최대 180초, jitter 없음, 새 배달은 바로 조회, 추적 대상은 60초마다 다시 읽음, tick 5초
+        engine = newEngine(60);
+    }
+
+    @Test
+    @DisplayName("바뀐 주문은 목표 상태별로 UPDATE 한 번씩, 배달 진행 순서상 앞선 상태에서만 바꾼다")
+    void batchTransitions() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY), delivery(2L, Status.REQUEST_DELIVERY),
+                delivery(3L, Status.DELIVERING), delivery(4L, Status.DELIVERING));
+        respond(1L, "PICKING_UP");
+        respond(2L, "PICKING_UP");
+        respond(3L, "COMPLETED");
+        respond(4L, "PICKING_UP");  // 상태 그대로
+
+        // when
+        engine.runCycle();
+
+        // then
+        verify(orderRepository).transitionStatuses(argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 2L))), eq(EnumSet.of(Status.REQUEST_DELIVERY)), eq(Status.DELIVERING));
+        verify(orderRepository).transitionStatuses(List.of(3L), EnumSet.of(Status.REQUEST_DELIVERY, Status.DELIVERING), Status.COMPLETED);
+        verify(orderRepository, times(2)).transitionStatuses(anyCollection(), anyCollection(), any());
+        verify(searchCountCache).evictStore(10L);
+        assertEquals(3.0, meterRegistry.get("delivery.tracking.updated").counter().count());
+    }
+
+    @Test
+    @DisplayName("조회에 실패한 배달은 상태를 바꾸지 않고, 바로 다시 조회하지 않도록 다음 조회 시각을 뒤로 미룬다")
+    void rescheduleAfterFailure() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY));
+        when(adapter.pollDelivery(eq("D-1"), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("502 Bad Gateway")));
+
+        // when
+        engine.runCycle();
+        engine.runCycle();
+
+        // then
+        verify(adapter, times(1)).pollDelivery(eq("D-1"), any());
+        verify(orderRepository, never()).transitionStatuses(anyCollection(), anyCollection(), any());
+        assertEquals(1.0, meterRegistry.get("delivery.tracking.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("폴링 호출 한도 때문에 보내지 못한 조회는 실패로 세지 않고 backoff 없이 곧 다시 조회한다")
+    void deferLocalRejection() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY));
+        when(adapter.pollDelivery(eq("D-1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new DeliveryAgencyUnavailableException("배달 대행사 VROONG: 폴링 호출 한도를 초과했습니다.")))
+                .thenReturn(CompletableFuture.completedFuture(TrackDeliveryResponse.builder().deliveryId("D-1").status("PICKING_UP").build()));
+
+        // when
+        engine.runCycle();
+        engine.runCycle();
+
+        // then
+        verify(adapter, times(2)).pollDelivery(eq("D-1"), any());
+        verify(orderRepository).transitionStatuses(List.of(1L), EnumSet.of(Status.REQUEST_DELIVERY), Status.DELIVERING);
+        assertEquals(0.0, meterRegistry.get("delivery.tracking.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("delivery.tracking.deferred").counter().count());
+        assertEquals(1.0, meterRegistry.get("delivery.tracking.polled").counter().count());
+    }
+
+    @Test
+    @DisplayName("tick 시간 안에 응답이 없으면 조회를 취소하고 실패로 다시 예약한다")
+    void timeout() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY), delivery(2L, Status.REQUEST_DELIVERY));
+        CompletableFuture<TrackDeliveryResponse> hanging = new CompletableFuture<>();
+        when(adapter.pollDelivery(eq("D-1"), any())).thenReturn(hanging);
+        respond(2L, "PICKING_UP");
+
+        // when
+        engine.runCycle();
+        engine.runCycle();
+
+        // then
+        verify(adapter, times(1)).pollDelivery(eq("D-1"), any());
+        verify(orderRepository).transitionStatuses(List.of(2L), EnumSet.of(Status.REQUEST_DELIVERY), Status.DELIVERING);
+        assertEquals(1.0, meterRegistry.get("delivery.tracking.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("resync 주기 전의 tick 은 조회 시각이 된 배달이 없으면 shard 임대 갱신 / 추적 대상 조회 없이 끝난다")
+    void skipsResyncBetweenIntervals() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY));
+        respond(1L, "PICKING_UP");
+        engine.runCycle();
+
+        // when
+        engine.runCycle();
+        engine.runCycle();
+
+        // then
+        verify(leaseManager, times(1)).refresh();
+        verify(orderRepository, times(1)).findTrackedDeliveries(any(), any(), any(), anyInt(), any());
+        verify(adapter, times(1)).pollDelivery(eq("D-1"), any());
+    }
+
+    @Test
+    @DisplayName("임대한 shard 가 없으면 추적 대상을 조회하지 않는다")
+    void noShards() {
+        // given
+        when(leaseManager.refresh()).thenReturn(Set.of());
+
+        // when
+        engine.runCycle();
+
+        // then
+        verify(orderRepository, never()).findTrackedDeliveries(any(), any(), any(), anyInt(), any());
+        verify(adapter, never()).pollDelivery(any(), any());
+    }
+
+    @Test
+    @DisplayName("임대 시간이 resync + tick 최대 시간 + tick 간격보다 짧으면 기동하지 않는다")
+    void rejectShortLease() {
+        // given
+        when(leaseManager.getLeaseTtl()).thenReturn(Duration.ofSeconds(30));
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> newEngine(25));  // 25 + 1 + 5 > 30
+        assertDoesNotThrow(() -> newEngine(20));
+    }
+
+    @Test
+    @DisplayName("조회 직전에 임대가 만료된 shard 의 배달은 조회하지 않고 다음 tick 에 다시 resync 한다")
+    void skipExpiredLeaseBeforePolling() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY), delivery(2L, Status.REQUEST_DELIVERY));
+        respond(1L, "PICKING_UP");
+        respond(2L, "PICKING_UP");
+        when(leaseManager.holdsShardOf(eq(2L), any())).thenReturn(false);
+
+        // when
+        engine.runCycle();
+        engine.runCycle();
+
+        // then
+        verify(adapter, never()).pollDelivery(eq("D-2"), any());
+        verify(orderRepository).transitionStatuses(List.of(1L), EnumSet.of(Status.REQUEST_DELIVERY), Status.DELIVERING);
+        verify(leaseManager, times(2)).refresh();
+    }
+
+    @Test
+    @DisplayName("조회하는 동안 임대가 만료되면 조회 결과를 반영하지 않는다")
+    void skipExpiredLeaseBeforeApply() {
+        // given
+        tracked(delivery(1L, Status.REQUEST_DELIVERY));
+        respond(1L, "PICKING_UP");
+        when(leaseManager.holdsShardOf(eq(1L), any())).thenReturn(true, false);  // 조회 전에는 유효, 반영 전에는 만료
+
+        // when
+        engine.runCycle();
+
+        // then
+        verify(adapter).pollDelivery(eq("D-1"), any());
+        verify(orderRepository, never()).transitionStatuses(anyCollection(), anyCollection(), any());
+    }
+
+    private DeliveryTrackingEngine newEngine(long resyncSeconds) {
+        return new DeliveryTrackingEngine(orderRepository, new DeliveryAgencyRegistry(List.of(adapter)), searchCountCache,
+                new TransactionTemplate(transactionManager), leaseManager, meterRegistry, 1, 180, 0.0, 0, 10, resyncSeconds, 5000);
+    }
+
+    private void tracked(TrackedDelivery... deliveries) {
+        when(orderRepository.findTrackedDeliveries(any(), any(), any(), anyInt(), any())).thenReturn(List.of(deliveries));
+    }
+
+    private void respond(Long orderId, String agencyStatus) {
+        when(adapter.pollDelivery(eq("D-" + orderId), any())).thenReturn(CompletableFuture.completedFuture(
+                TrackDeliveryResponse.builder().deliveryId("D-" + orderId).status(agencyStatus).build()));
+    }
+
+    private static TrackedDelivery delivery(Long id, Status status) {
+        TrackedDelivery delivery = mock(TrackedDelivery.class);
+        when(delivery.getId()).thenReturn(id);
+        when(delivery.getStoreId()).thenReturn(10L);
+        when(delivery.getDeliveryId()).thenReturn("D-" + id);
+        when(delivery.getDeliveryAgency()).thenReturn("VROONG");
+        when(delivery.getStatus()).thenReturn(status);
+        return delivery;
+    }
+}
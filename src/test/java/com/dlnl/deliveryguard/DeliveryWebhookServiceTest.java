@@ -0,0 +1,240 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.Status;
+import com.dlnl.deliveryguard.repository.OrderRepository;
+import com.dlnl.deliveryguard.repository.SearchCountCache;
+import com.dlnl.deliveryguard.repository.TrackedDelivery;
+import com.dlnl.deliveryguard.service.DeliveryAgencyAdapter;
+import com.dlnl.deliveryguard.service.DeliveryAgencyRegistry;
+import com.dlnl.deliveryguard.service.DeliveryStatusMapper;
+import com.dlnl.deliveryguard.service.DeliveryWebhookService;
+import com.dlnl.deliveryguard.web.DTO.TrackDeliveryResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DeliveryWebhookService 테스트")
+class DeliveryWebhookServiceTest {
+
+    private static final String SECRET = "webhook-secret";
+    private static final String BODY = "{\"deliveryId\":\"D-1\",\"status\":\"PICKING_UP\"}";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private DeliveryAgencyRegistry deliveryAgencyRegistry;
+
+    @Mock
+    private DeliveryAgencyAdapter adapter;
+
+    private DeliveryWebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // 허용 시각 오차 300초, 중복 확인 30분
+        webhookService = new DeliveryWebhookService(orderRepository, searchCountCache, deliveryAgencyRegistry, SECRET, 300, 30);
+        when(deliveryAgencyRegistry.find("VROONG")).thenReturn(Optional.of(adapter));
+        when(adapter.toOrderStatus(anyString())).thenAnswer(invocation -> DeliveryStatusMapper.toOrderStatus(invocation.getArgument(0)));
+        when(orderRepository.transitionStatuses(anyCollection(), anyCollection(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("timestamp.body 의 HMAC 서명이 맞는 요청만 통과한다")
+    void verifySignature() throws Exception {
+        // given
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+        String signature = sign(SECRET, timestamp, BODY);
+
+        // when & then
+        assertTrue(webhookService.verifySignature(timestamp, signature, BODY));
+        assertFalse(webhookService.verifySignature(timestamp, signature, BODY.replace("PICKING_UP", "COMPLETED")));
+        assertFalse(webhookService.verifySignature(timestamp, sign("other-secret", timestamp, BODY), BODY));
+        assertFalse(webhookService.verifySignature(timestamp, "not-hex", BODY));
+        assertFalse(webhookService.verifySignature(null, signature, BODY));
+    }
+
+    @Test
+    @DisplayName("서명이 맞아도 허용 시각 오차를 벗어난 요청은 거부한다")
+    void rejectSkewedTimestamp() throws Exception {
+        // given
+        String old = String.valueOf(Instant.now().minusSeconds(301).getEpochSecond());
+        String future = String.valueOf(Instant.now().plusSeconds(301).getEpochSecond());
+
+        // when & then
+        assertFalse(webhookService.verifySignature(old, sign(SECRET, old, BODY), BODY));
+        assertFalse(webhookService.verifySignature(future, sign(SECRET, future, BODY), BODY));
+    }
+
+    @Test
+    @DisplayName("secret 이 설정되지 않았으면 모든 요청을 거부한다")
+    void rejectWithoutSecret() throws Exception {
+        // given
+        DeliveryWebhookService unconfigured = new DeliveryWebhookService(orderRepository, searchCountCache, deliveryAgencyRegistry, "", 300, 30);
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+
+        // when & then
+        assertFalse(unconfigured.verifySignature(timestamp, sign(SECRET, timestamp, BODY), BODY));
+    }
+
+    @Test
+    @DisplayName("같은 (배달 ID, 상태) 알림은 한 번만 반영한다")
+    void ignoreDuplicate() {
+        // given
+        TrackedDelivery delivery = delivery(1L, Status.REQUEST_DELIVERY);
+        when(orderRepository.findTrackedDeliveriesByDeliveryId(null, "D-1")).thenReturn(List.of(delivery));
+
+        // when
+        boolean first = webhookService.handleStatusCallback(null, callback("D-1", "PICKING_UP"));
+        boolean second = webhookService.handleStatusCallback(null, callback("D-1", "PICKING_UP"));
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        verify(orderRepository, times(1)).transitionStatuses(List.of(1L), EnumSet.of(Status.REQUEST_DELIVERY), Status.DELIVERING);
+        verify(searchCountCache, times(1)).evictStore(10L);
+    }
+
+    @Test
+    @DisplayName("트랜잭션이 롤백되면 받은 알림을 잊어서 대행사 재전송을 다시 반영한다")
+    void forgetOnRollback() {
+        // given
+        TrackedDelivery delivery = delivery(1L, Status.REQUEST_DELIVERY);
+        when(orderRepository.findTrackedDeliveriesByDeliveryId(null, "D-1")).thenReturn(List.of(delivery));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        webhookService.handleStatusCallback(null, callback("D-1", "PICKING_UP"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        boolean retried = webhookService.handleStatusCallback(null, callback("D-1", "PICKING_UP"));
+
+        // then
+        assertTrue(retried);
+        verify(orderRepository, times(2)).transitionStatuses(anyCollection(), anyCollection(), eq(Status.DELIVERING));
+    }
+
+    @Test
+    @DisplayName("늦게 도착한 이전 단계 알림은 주문 상태를 되돌리지 않는다")
+    void forwardOnly() {
+        // given
+        TrackedDelivery delivery = delivery(1L, Status.DELIVERING);
+        when(orderRepository.findTrackedDeliveriesByDeliveryId(null, "D-1")).thenReturn(List.of(delivery));
+
+        // when
+        boolean handled = webhookService.handleStatusCallback(null, callback("D-1", "ASSIGNING_AGENT"));
+        webhookService.handleStatusCallback(null, callback("D-1", "COMPLETED"));
+
+        // then
+        assertTrue(handled);
+        verify(orderRepository).markDeliveryPushed(eq(1L), any());
+        verify(orderRepository, never()).transitionStatuses(anyCollection(), anyCollection(), eq(Status.REQUEST_DELIVERY));
+        verify(orderRepository).transitionStatuses(List.of(1L), EnumSet.of(Status.REQUEST_DELIVERY, Status.DELIVERING), Status.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("모르는 배달의 알림은 반영하지 않는다")
+    void unknownDelivery() {
+        // given
+        when(orderRepository.findTrackedDeliveriesByDeliveryId(null, "D-404")).thenReturn(List.of());
+
+        // when & then
+        assertFalse(webhookService.handleStatusCallback(null, callback("D-404", "PICKING_UP")));
+        verify(orderRepository, never()).markDeliveryPushed(any(), any());
+    }
+
+    @Test
+    @DisplayName("대행사 없이 받은 배달 ID 가 여러 대행사의 주문과 겹치면 예외 없이 반영하지 않는다")
+    void ambiguousDeliveryId() {
+        // given
+        TrackedDelivery vroong = delivery(1L, Status.REQUEST_DELIVERY);
+        TrackedDelivery other = delivery(2L, Status.REQUEST_DELIVERY);
+        when(orderRepository.findTrackedDeliveriesByDeliveryId(null, "D-1")).thenReturn(List.of(vroong, other));
+
+        // when
+        boolean handled = webhookService.handleStatusCallback(null, callback("D-1", "PICKING_UP"));
+
+        // then
+        assertFalse(handled);
+        verify(orderRepository, never()).markDeliveryPushed(any(), any());
+        verify(orderRepository, never()).transitionStatuses(anyCollection(), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("대행사별 주소로 받은 알림은 (대행사, 배달 ID) 로 주문을 찾는다")
+    void matchByAgencyAndDeliveryId() {
+        // given
+        TrackedDelivery delivery = delivery(1L, Status.REQUEST_DELIVERY);
+        when(orderRepository.findTrackedDeliveriesByDeliveryId("VROONG", "D-1")).thenReturn(List.of(delivery));
+
+        // when
+        boolean handled = webhookService.handleStatusCallback("vroong", callback("D-1", "PICKING_UP"));
+
+        // then
+        assertTrue(handled);
+        verify(orderRepository).transitionStatuses(List.of(1L), EnumSet.of(Status.REQUEST_DELIVERY), Status.DELIVERING);
+    }
+
+    @Test
+    @DisplayName("배달 진행 순서는 enum 선언 순서가 아니라 REQUEST_DELIVERY → DELIVERING → COMPLETED 로 판단한다")
+    void allowedFrom() {
+        // when & then
+        assertEquals(EnumSet.noneOf(Status.class), DeliveryStatusMapper.allowedFrom(Status.REQUEST_DELIVERY));
+        assertEquals(EnumSet.of(Status.REQUEST_DELIVERY), DeliveryStatusMapper.allowedFrom(Status.DELIVERING));
+        assertEquals(EnumSet.of(Status.REQUEST_DELIVERY, Status.DELIVERING), DeliveryStatusMapper.allowedFrom(Status.COMPLETED));
+        assertEquals(EnumSet.noneOf(Status.class), DeliveryStatusMapper.allowedFrom(Status.CANCELED));
+    }
+
+    private static TrackDeliveryResponse callback(String deliveryId, String status) {
+        return TrackDeliveryResponse.builder()
+                .deliveryId(deliveryId)
+                .status(status)
+                .build();
+    }
+
+    private static TrackedDelivery delivery(Long id, Status status) {
+        TrackedDelivery delivery = mock(TrackedDelivery.class);
+        when(delivery.getId()).thenReturn(id);
+        when(delivery.getStoreId()).thenReturn(10L);
+        when(delivery.getDeliveryId()).thenReturn("D-" + id);
+        when(delivery.getDeliveryAgency()).thenReturn("VROONG");
+        when(delivery.getStatus()).thenReturn(status);
+        return delivery;
+    }
+
+    private static String sign(String secret, String timestamp, String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal((timestamp + "." + body).getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.Role;
+import com.dlnl.deliveryguard.domain.Store;
+import com.dlnl.deliveryguard.domain.User;
+import com.dlnl.deliveryguard.jwt.AuthenticatedUser;
+import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtUtil 테스트")
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-util-test";
+
+    private static final UserSnapshot USER = UserSnapshot.of(User.builder()
+            .id(7L)
+            .loginID("owner")
+            .role(Role.USER)
+            .store(Store.builder().id(3L).build())
+            .build());
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 100L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheTtlSeconds", 300L);
+        jwtUtil.init();
+    }
+
+    @Test
+    @DisplayName("토큰을 한 번 확인하면 사용자 ID / 토큰 유형 / 만료 시각을 담은 클레임을 돌려준다")
+    void parseAndVerify() {
+        // given
+        String token = jwtUtil.generateAccessToken(USER);
+
+        // when
+        VerifiedToken verified = jwtUtil.parseAndVerify(token);
+
+        // then
+        assertEquals(7L, verified.getUserId());
+        assertTrue(verified.isAccessToken());
+        assertFalse(verified.isRefreshToken());
+        assertNotNull(verified.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("access 토큰의 클레임만으로 사용자 ID / 가게 ID / 권한을 담은 principal 을 만든다")
+    void principalFromClaims() {
+        // given
+        VerifiedToken verified = jwtUtil.parseAndVerify(jwtUtil.generateAccessToken(USER));
+
+        // when
+        AuthenticatedUser principal = AuthenticatedUser.of(verified);
+
+        // then
+        assertTrue(verified.hasPrincipalClaims());
+        assertEquals(7L, principal.getUserId());
+        assertEquals("owner", principal.getUsername());
+        assertEquals(3L, principal.getStoreId());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("같은 토큰은 캐시된 클레임을 그대로 돌려준다")
+    void cachedVerification() {
+        // given
+        String token = jwtUtil.generateAccessToken(USER);
+        VerifiedToken first = jwtUtil.parseAndVerify(token);
+
+        // when
+        VerifiedToken second = jwtUtil.parseAndVerify(token);
+
+        // then
+        assertSame(first, second);
+        assertEquals(7L, jwtUtil.getIdFromToken(token));
+    }
+
+    @Test
+    @DisplayName("서명이 다르거나 만료된 토큰은 BadCredentialsException")
+    void invalidTokens() {
+        // given
+        String token = jwtUtil.generateAccessToken(USER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .claim("tokenType", "access")
+                .claim("id", 7L)
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(SignatureAlgorithm.HS512, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        // when & then
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.parseAndVerify(tampered));
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.parseAndVerify(expired));
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.parseAndVerify("not-a-token"));
+    }
+
+    @Test
+    @DisplayName("리프레시 토큰 확인은 토큰 유형까지 확인한다")
+    void validateRefreshToken() {
+        // given
+        String accessToken = jwtUtil.generateAccessToken(USER);
+        String refreshToken = jwtUtil.generateRefreshToken(7L, "pos-1");
+
+        // when & then
+        assertTrue(jwtUtil.validateRefreshToken(refreshToken));
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.validateRefreshToken(accessToken));
+    }
+
+    @Test
+    @DisplayName("같은 사용자 / 기기로 연달아 발급한 리프레시 토큰도 서로 다르고, 기기 ID 를 담는다")
+    void refreshTokenHasJtiAndDevice() {
+        // when
+        String first = jwtUtil.generateRefreshToken(7L, "pos-1");
+        String second = jwtUtil.generateRefreshToken(7L, "pos-1");
+
+        // then
+        assertNotEquals(first, second);
+        assertNotEquals(JwtUtil.tokenHash(first), JwtUtil.tokenHash(second));
+        assertEquals("pos-1", jwtUtil.parseAndVerify(first).getDeviceId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.service.LoginAttemptLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoginAttemptLimiter 테스트")
+class LoginAttemptLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // IP 당 연속 3회, 로그인 ID 당 연속 2회 (분당 1회씩 충전)
+        loginAttemptLimiter = new LoginAttemptLimiter(meterRegistry, 1, 3, 1, 2, 100);
+    }
+
+    @Test
+    @DisplayName("같은 로그인 ID 로 실패가 한도만큼 쌓이면 IP 가 달라도 거절된다")
+    void throttlePerLoginId() {
+        // given
+        loginAttemptLimiter.recordFailure("owner");
+        loginAttemptLimiter.recordFailure("OWNER");
+
+        // when & then
+        assertFalse(loginAttemptLimiter.tryAcquire("10.0.0.3", "owner"));
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.3", "other"));
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "login").counter().count());
+    }
+
+    @Test
+    @DisplayName("성공한 로그인은 로그인 ID 한도를 쓰지 않는다")
+    void successDoesNotChargeLoginId() {
+        // when & then
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.1", "owner"));
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.2", "owner"));
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.3", "owner"));
+        loginAttemptLimiter.recordFailure("owner");
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.4", "owner"));  // 실패 1회는 한도(2회) 안
+    }
+
+    @Test
+    @DisplayName("한 IP 에서 여러 로그인 ID 를 시도해도 IP 한도를 넘으면 거절된다")
+    void throttlePerIp() {
+        // when & then
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.1", "a"));
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.1", "b"));
+        assertTrue(loginAttemptLimiter.tryAcquire("10.0.0.1", "c"));
+        assertFalse(loginAttemptLimiter.tryAcquire("10.0.0.1", "d"));
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count());
+    }
+}
@@ -0,0 +1,164 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.MailOutbox;
+import com.dlnl.deliveryguard.repository.MailOutboxRepository;
+import com.dlnl.deliveryguard.service.MailBodyCipher;
+import com.dlnl.deliveryguard.service.MailOutboxDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MailOutboxDispatcher 테스트")
+class MailOutboxDispatcherTest {
+
+    private static final String KEY = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";  // 32바이트 테스트 키
+
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MailBodyCipher mailBodyCipher = new MailBodyCipher(KEY);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MailOutboxDispatcher dispatcher;
+
+    private final List<MimeMessage> createdMessages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // 배치 10건, 임대 120초, 최대 3회, backoff 30초부터 최대 1시간
+        dispatcher = new MailOutboxDispatcher(mailOutboxRepository, mailSender, mailBodyCipher, new TransactionTemplate(transactionManager),
+                meterRegistry, 10, 120, 3, 30, 3600);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> {
+            MimeMessage message = new MimeMessage((Session) null);
+            createdMessages.add(message);
+            return message;
+        });
+    }
+
+    @Test
+    @DisplayName("한 번의 발송으로 묶어 보내고, 보낸 메일은 삭제하고 실패한 메일은 backoff 후 다시 시도한다")
+    void dispatchBatch() {
+        // given
+        MailOutbox sent = pending(1L, 0);
+        MailOutbox retried = pending(2L, 0);
+        when(mailOutboxRepository.findDispatchable(any(), any())).thenReturn(List.of(sent, retried));
+        when(mailOutboxRepository.findAllById(any())).thenReturn(List.of(retried));
+        doAnswer(invocation -> {
+            throw new MailSendException(Map.of(createdMessages.get(1), new RuntimeException("452 too many recipients")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        // when
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        // then
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        verify(mailOutboxRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(MailOutbox.Status.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertFalse(retried.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        assertEquals("452 too many recipients", retried.getLastError());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.retried").counter().count());
+    }
+
+    @Test
+    @DisplayName("최대 시도 횟수를 넘으면 FAILED 로 남기고 본문(임시 비밀번호)을 지운다")
+    void giveUpAfterMaxAttempts() {
+        // given
+        MailOutbox exhausted = pending(3L, 2);
+        when(mailOutboxRepository.findDispatchable(any(), any())).thenReturn(List.of(exhausted));
+        when(mailOutboxRepository.findAllById(any())).thenReturn(List.of(exhausted));
+        doThrow(new MailSendException("Mail server connection failed")).when(mailSender).send(any(MimeMessage[].class));
+
+        // when
+        dispatcher.dispatch();
+
+        // then
+        assertEquals(MailOutbox.Status.FAILED, exhausted.getStatus());
+        assertEquals(3, exhausted.getAttempts());
+        assertNull(exhausted.getHtmlBody());
+        verify(mailOutboxRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("본문은 암호화해 저장되어 있고, 발송할 때만 복호화한다")
+    void decryptOnlyWhenSending() throws Exception {
+        // given
+        MailOutbox mail = pending(4L, 0, mailBodyCipher.encrypt("<p>temporary password abc12345</p>"));
+        when(mailOutboxRepository.findDispatchable(any(), any())).thenReturn(List.of(mail));
+
+        // when
+        dispatcher.dispatch();
+
+        // then
+        assertFalse(mail.getHtmlBody().contains("abc12345"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createdMessages.get(0).writeTo(out);
+        assertTrue(out.toString(StandardCharsets.US_ASCII).contains("temporary password abc12345"));
+        verify(mailOutboxRepository).deleteAllByIdInBatch(List.of(4L));
+    }
+
+    @Test
+    @DisplayName("복호화할 수 없는 본문(키 변경, 변조)은 보내지 않고 바로 FAILED 로 남긴다")
+    void giveUpWhenBodyCannotBeDecrypted() {
+        // given
+        MailOutbox tampered = pending(5L, 0, new MailBodyCipher("ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=").encrypt("<p>abc12345</p>"));
+        when(mailOutboxRepository.findDispatchable(any(), any())).thenReturn(List.of(tampered));
+        when(mailOutboxRepository.findAllById(any())).thenReturn(List.of(tampered));
+
+        // when
+        dispatcher.dispatch();
+
+        // then
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+        assertEquals(MailOutbox.Status.FAILED, tampered.getStatus());
+        assertNull(tampered.getHtmlBody());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.failed").counter().count());
+    }
+
+    private MailOutbox pending(Long id, int attempts) {
+        return pending(id, attempts, mailBodyCipher.encrypt("<p>임시 비밀번호를 알려드립니다.<br>abc12345</p>"));
+    }
+
+    private static MailOutbox pending(Long id, int attempts, String storedBody) {
+        return MailOutbox.builder()
+                .id(id)
+                .recipient("user" + id + "@example.com")
+                .subject("임시 비밀번호 발급")
+                .htmlBody(storedBody)
+                .status(MailOutbox.Status.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.repository.MenuNameIndex;
+import com.dlnl.deliveryguard.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MenuNameIndex 테스트")
+class MenuNameIndexTest {
+
+    @Mock
+    private MenuRepository menuRepository;
+
+    private MenuNameIndex menuNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        menuNameIndex = new MenuNameIndex(menuRepository, 300);
+        when(menuRepository.findAllMenuNames()).thenReturn(List.of(
+                menuName(1L, "양념치킨"),
+                menuName(2L, "후라이드치킨"),
+                menuName(3L, "Cheese Burger")));
+    }
+
+    @Test
+    @DisplayName("검색어가 포함된 메뉴 ID만 반환한다")
+    void findMenuIds() {
+        // when & then
+        assertEquals(Set.of(1L, 2L), menuNameIndex.findMenuIds("치킨"));
+        assertEquals(Set.of(1L), menuNameIndex.findMenuIds("양념치"));
+        assertTrue(menuNameIndex.findMenuIds("피자").isEmpty());
+    }
+
+    @Test
+    @DisplayName("대소문자를 구분하지 않고, 한 글자 검색어도 처리한다")
+    void findMenuIdsIgnoreCaseAndSingleCharacter() {
+        // when & then
+        assertEquals(Set.of(3L), menuNameIndex.findMenuIds("cheese"));
+        assertEquals(Set.of(2L), menuNameIndex.findMenuIds("후"));
+    }
+
+    @Test
+    @DisplayName("인덱스는 한 번만 구성하고, invalidate 이후에 다시 구성한다")
+    void buildOnceUntilInvalidated() {
+        // when
+        menuNameIndex.findMenuIds("치킨");
+        menuNameIndex.findMenuIds("버거");
+        menuNameIndex.invalidate();
+        menuNameIndex.findMenuIds("치킨");
+
+        // then
+        verify(menuRepository, times(2)).findAllMenuNames();
+    }
+
+    private MenuRepository.MenuName menuName(Long id, String name) {
+        return new MenuRepository.MenuName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.web.DTO.OrderCursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderCursor 테스트")
+class OrderCursorTest {
+
+    @Test
+    @DisplayName("인코딩한 커서를 다시 디코딩하면 같은 값이 나온다")
+    void encodeAndDecode() {
+        // given
+        LocalDateTime orderDateTime = LocalDateTime.of(2024, 10, 1, 12, 30, 15);
+        OrderCursor cursor = new OrderCursor(orderDateTime, 1234L);
+
+        // when
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        // then
+        assertEquals(orderDateTime, decoded.getOrderDateTime());
+        assertEquals(1234L, decoded.getOrderId());
+    }
+
+    @Test
+    @DisplayName("초 단위가 0인 주문 일시도 정상적으로 디코딩된다")
+    void encodeAndDecodeWithoutSeconds() {
+        // given
+        LocalDateTime orderDateTime = LocalDateTime.of(2024, 10, 1, 12, 30);
+        OrderCursor cursor = new OrderCursor(orderDateTime, 1L);
+
+        // when
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        // then
+        assertEquals(orderDateTime, decoded.getOrderDateTime());
+    }
+
+    @Test
+    @DisplayName("주문 일시가 없는 주문의 커서도 인코딩 / 디코딩된다 (주문 일시 없는 주문은 마지막에 이어서 조회)")
+    void encodeAndDecodeWithoutOrderDateTime() {
+        // given
+        OrderCursor cursor = new OrderCursor(null, 77L);
+
+        // when
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        // then
+        assertNull(decoded.getOrderDateTime());
+        assertEquals(77L, decoded.getOrderId());
+    }
+
+    @Test
+    @DisplayName("잘못된 커서는 IllegalArgumentException 발생")
+    void decodeInvalidCursor() {
+        // when & then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            OrderCursor.decode("not-a-cursor");
+        });
+
+        assertTrue(exception.getMessage().startsWith("유효하지 않은 커서입니다"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.domain.RefreshToken;
+import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
+import com.dlnl.deliveryguard.repository.RefreshTokenRepository;
+import com.dlnl.deliveryguard.repository.RevokedTokenFilter;
+import com.dlnl.deliveryguard.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RefreshTokenService 테스트")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private RevokedTokenFilter revokedTokenFilter;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        revokedTokenFilter = new RevokedTokenFilter(1000, 0.0001);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, revokedTokenFilter, jwtUtil);
+        when(jwtUtil.getRefreshExpirationMillis()).thenReturn(3_600_000L);
+    }
+
+    @Test
+    @DisplayName("로그인하면 같은 기기의 이전 세션을 폐기하고, 토큰 해시만 저장한다")
+    void issueRevokesSameDevice() {
+        // given
+        when(jwtUtil.generateRefreshToken(1L, "default")).thenReturn("newRefreshToken");
+
+        // when
+        String refreshToken = refreshTokenService.issue(1L, " ");
+
+        // then
+        assertEquals("newRefreshToken", refreshToken);
+        verify(refreshTokenRepository).revokeByUserIdAndDeviceId(eq(1L), eq("default"), any());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(JwtUtil.tokenHash("newRefreshToken"), saved.getValue().getTokenHash());
+        assertEquals("default", saved.getValue().getDeviceId());
+    }
+
+    @Test
+    @DisplayName("교체한 토큰으로 다시 재발급하면 폐기 필터에서 거절하고, 재사용으로 보고 모든 기기의 세션을 폐기한다")
+    void rotateOnce() {
+        // given
+        VerifiedToken verifiedToken = refreshClaims(1L, "pos-1");
+        when(refreshTokenRepository.revokeIfActive(eq(JwtUtil.tokenHash("oldRefreshToken")), eq(1L), any())).thenReturn(1);
+        when(jwtUtil.generateRefreshToken(1L, "pos-1")).thenReturn("newRefreshToken");
+        when(refreshTokenRepository.existsByTokenHashAndUserIdAndRevokedAtIsNotNull(JwtUtil.tokenHash("oldRefreshToken"), 1L)).thenReturn(true);
+
+        // when
+        String rotated = refreshTokenService.rotate(verifiedToken, "oldRefreshToken");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> refreshTokenService.rotate(verifiedToken, "oldRefreshToken"));
+
+        // then
+        assertEquals("newRefreshToken", rotated);
+        assertEquals("이미 사용된 refresh 토큰입니다.", exception.getMessage());
+        verify(refreshTokenRepository, times(1)).revokeIfActive(anyString(), anyLong(), any());
+        verify(refreshTokenRepository).revokeAllByUserId(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("이미 폐기됐거나 저장되지 않은 토큰이면 새 토큰을 발급하지 않는다")
+    void rotateUnknownToken() {
+        // given
+        when(refreshTokenRepository.revokeIfActive(anyString(), eq(1L), any())).thenReturn(0);
+
+        // when & then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> refreshTokenService.rotate(refreshClaims(1L, "pos-1"), "unknownRefreshToken"));
+
+        assertEquals("refresh 토큰이 일치하지 않습니다.", exception.getMessage());
+        verify(refreshTokenRepository, never()).save(any());
+        verify(refreshTokenRepository, never()).revokeAllByUserId(anyLong(), any());  // 폐기된 토큰이 아니면 다른 세션은 유지
+    }
+
+    @Test
+    @DisplayName("다른 서버에서 폐기해 필터에 없는 토큰이 다시 사용되어도 모든 기기의 세션을 폐기한다")
+    void rotateRevokedElsewhere() {
+        // given
+        String tokenHash = JwtUtil.tokenHash("revokedElsewhere");
+        when(refreshTokenRepository.revokeIfActive(eq(tokenHash), eq(1L), any())).thenReturn(0);
+        when(refreshTokenRepository.existsByTokenHashAndUserIdAndRevokedAtIsNotNull(tokenHash, 1L)).thenReturn(true);
+
+        // when & then
+        assertThrows(IllegalArgumentException.class,
+                () -> refreshTokenService.rotate(refreshClaims(1L, "pos-1"), "revokedElsewhere"));
+
+        verify(refreshTokenRepository).revokeAllByUserId(eq(1L), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("정리 작업은 폐기 필터를 DB 의 폐기 토큰 목록으로 다시 만든다")
+    void cleanUpRebuildsFilter() {
+        // given
+        revokedTokenFilter.add(JwtUtil.tokenHash("expiredRefreshToken"));
+        when(refreshTokenRepository.findRevokedTokenHashes(any())).thenReturn(List.of(JwtUtil.tokenHash("revokedElsewhere")));
+
+        // when
+        refreshTokenService.cleanUp();
+
+        // then
+        verify(refreshTokenRepository).deleteExpired(any());
+        assertTrue(revokedTokenFilter.mightContain(JwtUtil.tokenHash("revokedElsewhere")));
+        assertFalse(revokedTokenFilter.mightContain(JwtUtil.tokenHash("expiredRefreshToken")));
+    }
+
+    private static VerifiedToken refreshClaims(Long userId, String deviceId) {
+        return new VerifiedToken(userId, "refresh", null, null, null, deviceId, Instant.now(), Instant.now().plusSeconds(3600));
+    }
+}
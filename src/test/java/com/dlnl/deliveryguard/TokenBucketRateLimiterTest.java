@@ -0,0 +1,70 @@
+package com.dlnl.deliveryguard;
+
+import com.dlnl.deliveryguard.service.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketRateLimiter 테스트")
+class TokenBucketRateLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // 초당 10회 (100ms 마다 토큰 1개), 최대 2개까지 연속 호출
+        rateLimiter = new TokenBucketRateLimiter(10, 2, clock::get);
+    }
+
+    @Test
+    @DisplayName("쌓인 토큰만큼은 기다리지 않고 호출하고, 그 이후는 timeout 안에 토큰이 차지 않으면 실패한다")
+    void burstThenReject() {
+        // when & then
+        assertEquals(0, rateLimiter.reserve(0));
+        assertEquals(0, rateLimiter.reserve(0));
+        assertEquals(-1, rateLimiter.reserve(50 * MILLIS));
+    }
+
+    @Test
+    @DisplayName("토큰이 없으면 다음 토큰이 찰 때까지의 대기 시간을 예약하고, 예약은 차례로 뒤로 밀린다")
+    void reserveWaitInOrder() {
+        // given
+        rateLimiter.reserve(0);
+        rateLimiter.reserve(0);
+
+        // when
+        long first = rateLimiter.reserve(150 * MILLIS);
+        long second = rateLimiter.reserve(150 * MILLIS);
+        long third = rateLimiter.reserve(250 * MILLIS);
+
+        // then
+        assertEquals(100 * MILLIS, first);
+        assertEquals(-1, second);  // 200ms 를 기다려야 하므로 실패 (예약하지 않음)
+        assertEquals(200 * MILLIS, third);
+    }
+
+    @Test
+    @DisplayName("시간이 지나면 토큰이 다시 차지만 burst 를 넘지 않는다")
+    void refillUpToBurst() {
+        // given
+        rateLimiter.reserve(0);
+        rateLimiter.reserve(0);
+
+        // when
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        // then
+        assertEquals(0, rateLimiter.reserve(0));
+        assertEquals(0, rateLimiter.reserve(0));
+        assertEquals(-1, rateLimiter.reserve(0));
+    }
+}
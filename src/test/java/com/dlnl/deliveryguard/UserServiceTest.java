@@ -3,30 +3,41 @@ package com.dlnl.deliveryguard;
 import com.dlnl.deliveryguard.domain.Store;
 import com.dlnl.deliveryguard.domain.Role;
 import com.dlnl.deliveryguard.domain.User;
+import com.dlnl.deliveryguard.jwt.AuthenticatedUser;
 import com.dlnl.deliveryguard.jwt.JwtUtil;
+import com.dlnl.deliveryguard.jwt.VerifiedToken;
 import com.dlnl.deliveryguard.repository.StoreRepository;
 import com.dlnl.deliveryguard.repository.UserRepository;
+import com.dlnl.deliveryguard.repository.UserSnapshot;
+import com.dlnl.deliveryguard.repository.UserSnapshotCache;
+import com.dlnl.deliveryguard.service.MailOutboxService;
+import com.dlnl.deliveryguard.service.RefreshTokenService;
 import com.dlnl.deliveryguard.service.UserService;
 import com.dlnl.deliveryguard.web.DTO.*;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.mockito.Spy;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 @DisplayName("UserService 테스트")
 class UserServiceTest {
@@ -43,11 +54,20 @@ class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private UserService userService;
 
     @Mock
-    private JavaMailSender mailSender;
+    private MailOutboxService mailOutboxService;
 
     @BeforeEach
     void setUp() {
@@ -83,7 +103,10 @@ class UserServiceTest {
             // when
             userService.registerUser(request);
 
-            // then
+            // then - 해싱은 트랜잭션 밖에서 먼저
+            InOrder inOrder = inOrder(passwordEncoder, transactionTemplate);
+            inOrder.verify(passwordEncoder).encode("password123");
+            inOrder.verify(transactionTemplate).executeWithoutResult(any());
             verify(userRepository).save(any(User.class));
             verify(storeRepository).save(any(Store.class));
         }
@@ -228,8 +251,9 @@ class UserServiceTest {
 
             when(userRepository.findByLoginID("testuser")).thenReturn(Optional.of(user));
             when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
-            when(jwtUtil.generateAccessToken(1L)).thenReturn("generatedAccessToken");
-            when(jwtUtil.generateRefreshToken(1L)).thenReturn("generatedRefreshToken");
+            when(jwtUtil.generateAccessToken(any(UserSnapshot.class))).thenReturn("generatedAccessToken");
+            when(refreshTokenService.issue(1L, "pos-1")).thenReturn("generatedRefreshToken");
+            loginRequest.setDeviceId("pos-1");
 
             // when
             LoginResponse response = userService.login(loginRequest);
@@ -238,7 +262,7 @@ class UserServiceTest {
             assertNotNull(response);
             assertEquals("generatedAccessToken", response.getAccessToken());
             assertEquals("generatedRefreshToken", response.getRefreshToken());
-            verify(userRepository).save(user);
+            verify(userRepository, never()).save(any(User.class));  // refresh 토큰은 사용자 행이 아니라 refresh_token 테이블에 저장
         }
     }
 
@@ -301,19 +325,18 @@ class UserServiceTest {
             String refreshToken = "validRefreshToken";
             Long userId = 1L;
 
-            User user = User.builder()
+            UserSnapshot user = UserSnapshot.of(User.builder()
                     .id(userId)
                     .loginID("testuser")
-                    .refreshToken(refreshToken)
                     .updatedAt(LocalDateTime.now())
-                    .build();
+                    .build());
+            VerifiedToken verifiedToken = refreshClaims(userId);
 
             // Mocking behavior
-            when(jwtUtil.validateRefreshToken(refreshToken)).thenReturn(true);
-            when(jwtUtil.getIdFromToken(refreshToken)).thenReturn(userId);
-            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-            when(jwtUtil.generateAccessToken(userId)).thenReturn("newAccessToken");
-            when(jwtUtil.generateRefreshToken(userId)).thenReturn("newRefreshToken");
+            when(jwtUtil.parseAndVerify(refreshToken)).thenReturn(verifiedToken);
+            when(refreshTokenService.rotate(verifiedToken, refreshToken)).thenReturn("newRefreshToken");
+            when(userSnapshotCache.get(userId)).thenReturn(Optional.of(user));
+            when(jwtUtil.generateAccessToken(user)).thenReturn("newAccessToken");
 
             // when
             TokenResponse response = userService.reissueToken(expiredAccessToken, refreshToken);
@@ -323,7 +346,7 @@ class UserServiceTest {
             assertEquals("newAccessToken", response.getAccessToken());
             assertEquals("newRefreshToken", response.getRefreshToken());
 
-            verify(userRepository, times(1)).save(any(User.class));
+            verify(userRepository, never()).save(any(User.class));
         }
     }
 
@@ -338,14 +361,34 @@ class UserServiceTest {
             String expiredAccessToken = "expiredAccessToken";
             String refreshToken = "invalidRefreshToken";
 
-            when(jwtUtil.validateRefreshToken(refreshToken)).thenThrow(new IllegalArgumentException("유효하지 않은 리프레시 토큰입니다."));
+            when(jwtUtil.parseAndVerify(refreshToken)).thenThrow(new BadCredentialsException("유효하지 않은 토큰입니다."));
 
             // when & then
-            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            BadCredentialsException exception = assertThrows(BadCredentialsException.class, () -> {
                 userService.reissueToken(expiredAccessToken, refreshToken);
             });
 
+            assertEquals("유효하지 않은 토큰입니다.", exception.getMessage());
+            verifyNoInteractions(refreshTokenService);
+        }
+
+        @Test
+        @DisplayName("access token으로 재발급을 요청하면 실패")
+        void reissueTokenWithAccessToken() {
+            // given
+            String expiredAccessToken = "expiredAccessToken";
+            String accessToken = "accessToken";
+
+            when(jwtUtil.parseAndVerify(accessToken)).thenReturn(new VerifiedToken(1L, "access", "testuser", 1L, "USER", null,
+                    Instant.now(), Instant.now().plusSeconds(60)));
+
+            // when & then
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+                userService.reissueToken(expiredAccessToken, accessToken);
+            });
+
             assertEquals("유효하지 않은 리프레시 토큰입니다.", exception.getMessage());
+            verifyNoInteractions(refreshTokenService);
         }
 
         @Test
@@ -355,10 +398,11 @@ class UserServiceTest {
             String expiredAccessToken = "expiredAccessToken";
             String refreshToken = "validRefreshToken";
             Long userId = 1L;
+            VerifiedToken verifiedToken = refreshClaims(userId);
 
-            when(jwtUtil.validateRefreshToken(refreshToken)).thenReturn(true);
-            when(jwtUtil.getIdFromToken(refreshToken)).thenReturn(userId);
-            when(userRepository.findById(userId)).thenReturn(Optional.empty());
+            when(jwtUtil.parseAndVerify(refreshToken)).thenReturn(verifiedToken);
+            when(refreshTokenService.rotate(verifiedToken, refreshToken)).thenReturn("newRefreshToken");
+            when(userSnapshotCache.get(userId)).thenReturn(Optional.empty());
 
             // when & then
             IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -369,23 +413,17 @@ class UserServiceTest {
         }
 
         @Test
-        @DisplayName("Refresh token이 일치하지 않을 때 토큰 재발급 실패")
+        @DisplayName("이미 교체됐거나 저장되지 않은 refresh token이면 토큰 재발급 실패")
         void reissueTokenRefreshTokenMismatch() {
             // given
             String expiredAccessToken = "expiredAccessToken";
             String refreshToken = "validRefreshToken";
             Long userId = 1L;
+            VerifiedToken verifiedToken = refreshClaims(userId);
 
-            User user = User.builder()
-                    .id(userId)
-                    .loginID("testuser")
-                    .refreshToken("differentRefreshToken") // 다른 refresh token을 가진 사용자
-                    .updatedAt(LocalDateTime.now())
-                    .build();
-
-            when(jwtUtil.validateRefreshToken(refreshToken)).thenReturn(true);
-            when(jwtUtil.getIdFromToken(refreshToken)).thenReturn(userId);
-            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+            when(jwtUtil.parseAndVerify(refreshToken)).thenReturn(verifiedToken);
+            when(refreshTokenService.rotate(verifiedToken, refreshToken))
+                    .thenThrow(new IllegalArgumentException("refresh 토큰이 일치하지 않습니다."));
 
             // when & then
             IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -393,7 +431,64 @@ class UserServiceTest {
             });
 
             assertEquals("refresh 토큰이 일치하지 않습니다.", exception.getMessage());
+            verify(jwtUtil, never()).generateAccessToken(any(UserSnapshot.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("access 토큰 principal 케이스")
+    class LoadPrincipalCases {
+
+        @Test
+        @DisplayName("토큰 발급 이후 사용자 정보가 바뀌지 않았으면 토큰 클레임으로 principal 을 만든다")
+        void principalFromClaims() {
+            // given
+            Instant issuedAt = Instant.now();
+            when(userSnapshotCache.get(1L)).thenReturn(Optional.of(snapshot(7L, Role.USER, LocalDateTime.now().minusHours(1))));
+            VerifiedToken token = new VerifiedToken(1L, "access", "testuser", 3L, "USER", null, issuedAt, issuedAt.plusSeconds(60));
+
+            // when
+            AuthenticatedUser principal = (AuthenticatedUser) userService.loadPrincipal(token);
+
+            // then
+            assertEquals(3L, principal.getStoreId());
+        }
+
+        @Test
+        @DisplayName("토큰 발급 이후 가게 / 권한이 바뀌었으면 사용자 스냅샷으로 principal 을 만든다")
+        void principalFromSnapshotWhenClaimsStale() {
+            // given
+            Instant issuedAt = Instant.now().minusSeconds(600);
+            when(userSnapshotCache.get(1L)).thenReturn(Optional.of(snapshot(7L, Role.ADMIN, LocalDateTime.now())));
+            VerifiedToken token = new VerifiedToken(1L, "access", "testuser", 3L, "USER", null, issuedAt, issuedAt.plusSeconds(3600));
+
+            // when
+            AuthenticatedUser principal = (AuthenticatedUser) userService.loadPrincipal(token);
+
+            // then
+            assertEquals(7L, principal.getStoreId());
+            assertEquals("ROLE_ADMIN", principal.getAuthorities().iterator().next().getAuthority());
+        }
+
+        @Test
+        @DisplayName("삭제된 사용자의 토큰이면 실패")
+        void principalUserNotFound() {
+            // given
+            Instant issuedAt = Instant.now();
+            when(userSnapshotCache.get(1L)).thenReturn(Optional.empty());
+            VerifiedToken token = new VerifiedToken(1L, "access", "testuser", 3L, "USER", null, issuedAt, issuedAt.plusSeconds(60));
+
+            // when & then
+            assertThrows(UsernameNotFoundException.class, () -> userService.loadPrincipal(token));
         }
+
+        private UserSnapshot snapshot(Long storeId, Role role, LocalDateTime updatedAt) {
+            return new UserSnapshot(1L, "testuser", role, storeId, "가게", "서울시", updatedAt);
+        }
+    }
+
+    private static VerifiedToken refreshClaims(Long userId) {
+        return new VerifiedToken(userId, "refresh", null, null, null, "pos-1", Instant.now(), Instant.now().plusSeconds(3600));
     }
 
     @Nested
@@ -437,7 +532,7 @@ class UserServiceTest {
 
         @Test
         @DisplayName("존재하는 사용자에게 이메일 전송 성공")
-        void sendEmailSuccess() throws MessagingException {
+        void sendEmailSuccess() {
             // given
             String email = "user@example.com";
             String loginID = "testuser";
@@ -447,18 +542,45 @@ class UserServiceTest {
                     .email(email)
                     .build();
 
-            MimeMessage mimeMessage = mock(MimeMessage.class); // MimeMessage를 모킹
-
             // Mocking behavior
             when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-            when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
 
             // when
             userService.sendUserIdToEmail(email);
 
             // then
             verify(userRepository, times(1)).findByEmail(email); // 이메일로 사용자 찾기 검증
-            verify(mailSender, times(1)).send(mimeMessage); // 이메일 전송 검증
+            verify(mailOutboxService, times(1)).enqueue(eq(email), eq("내 아이디 찾기"), contains(loginID)); // outbox 저장 검증
+        }
+
+        @Test
+        @DisplayName("임시 비밀번호는 변경한 비밀번호와 함께 outbox에 저장하고 모든 세션을 폐기한다")
+        void resetPasswordEnqueuesMail() {
+            // given
+            String email = "user@example.com";
+
+            User user = User.builder()
+                    .id(1L)
+                    .loginID("testuser")
+                    .email(email)
+                    .password("encodedPassword")
+                    .build();
+
+            when(userRepository.existsByEmail(email)).thenReturn(true);
+            when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+            when(passwordEncoder.encode(anyString())).thenReturn("encodedRandomPassword");
+
+            // when
+            userService.resetPasswordAndSendEmail(email);
+
+            // then
+            InOrder inOrder = inOrder(passwordEncoder, transactionTemplate);
+            inOrder.verify(passwordEncoder).encode(anyString());    // 트랜잭션을 열기 전에 해싱
+            inOrder.verify(transactionTemplate).executeWithoutResult(any());
+            assertEquals("encodedRandomPassword", user.getPassword());
+            verify(userRepository).save(user);
+            verify(mailOutboxService).enqueue(eq(email), eq("임시 비밀번호 발급"), anyString());
+            verify(refreshTokenService).revokeAll(1L);
         }
     }
 
@@ -483,6 +605,20 @@ class UserServiceTest {
             assertEquals("해당 이메일을 가진 사용자를 찾을 수 없습니다.", exception.getMessage());
         }
 
+        @Test
+        @DisplayName("존재하지 않는 이메일이면 해싱도 트랜잭션도 하지 않는다")
+        void resetPasswordUserNotFound() {
+            // given
+            String email = "unknown@example.com";
+            when(userRepository.existsByEmail(email)).thenReturn(false);
+
+            // when & then
+            assertThrows(IllegalArgumentException.class, () -> userService.resetPasswordAndSendEmail(email));
+            verify(passwordEncoder, never()).encode(anyString());
+            verify(transactionTemplate, never()).executeWithoutResult(any());
+            verify(mailOutboxService, never()).enqueue(anyString(), anyString(), anyString());
+        }
+
     }
     @Nested
     @DisplayName("비밀번호 변경 테스트")
@@ -514,9 +650,14 @@ class UserServiceTest {
             // execute
             userService.updatePassword(userId, currentPassword, newPassword);
 
-            // then
+            // then - 확인과 해싱은 트랜잭션 밖에서 먼저
+            InOrder inOrder = inOrder(passwordEncoder, transactionTemplate);
+            inOrder.verify(passwordEncoder).matches(currentPassword, "encodedPassword");
+            inOrder.verify(passwordEncoder).encode(newPassword);
+            inOrder.verify(transactionTemplate).executeWithoutResult(any());
             assertEquals(encodedNewPassword, testUser.getPassword());
             verify(userRepository, times(1)).save(testUser);
+            verify(refreshTokenService).revokeAll(userId);  // 모든 기기의 세션 폐기
         }
 
         @Test
@@ -548,6 +689,34 @@ class UserServiceTest {
             assertEquals("현재 비밀번호가 일치하지 않습니다.", exception.getMessage());
             verify(userRepository, never()).save(testUser);
         }
+
+        @Test
+        @DisplayName("확인한 뒤 저장하기 전에 다른 요청이 비밀번호를 바꿨으면 덮어쓰지 않는다")
+        void updatePasswordChangedConcurrently() {
+            // given
+            User verified = User.builder()
+                    .id(1L)
+                    .loginID("testuser")
+                    .password("encodedPassword")
+                    .role(Role.USER)
+                    .build();
+            User changed = User.builder()
+                    .id(1L)
+                    .loginID("testuser")
+                    .password("resetPassword")
+                    .role(Role.USER)
+                    .build();
+
+            when(userRepository.findById(1L)).thenReturn(Optional.of(verified), Optional.of(changed));
+            when(passwordEncoder.matches("currentPassword123!", "encodedPassword")).thenReturn(true);
+            when(passwordEncoder.encode("newPassword456!")).thenReturn("encodedNewPassword");
+
+            // when & then
+            assertThrows(IllegalStateException.class, () -> userService.updatePassword(1L, "currentPassword123!", "newPassword456!"));
+            assertEquals("resetPassword", changed.getPassword());
+            verify(userRepository, never()).save(any(User.class));
+            verify(refreshTokenService, never()).revokeAll(any());
+        }
     }
 
     @Nested